@@ -0,0 +1,65 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the model for the whole catalog: the plain records, the table adapters around
+ * them, and the adapters once a row has been rendered (properties created).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardConstructionBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private List<CardData> cards;
+    private CollectionState collection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cards = SyntheticCatalog.scale(CardLoader.loadCards("/OnePieceCards.xml"), scale);
+        collection = new CollectionState(cards, SetIndex.build(cards));
+    }
+
+    @Benchmark
+    public void cardData(Blackhole bh) {
+        for (CardData c : cards) {
+            bh.consume(new CardData(c.id(), c.name(), c.rarity(), c.type(), c.attribute(), c.power(), c.counter(),
+                    c.color(), c.cardType(), c.effect(), c.imageUrl(), c.alternateArt(), c.seriesId(), c.seriesName()));
+        }
+    }
+
+    @Benchmark
+    public void tableAdapters(Blackhole bh) {
+        for (int i = 0; i < cards.size(); i++) {
+            bh.consume(new Card(i, cards.get(i), collection));
+        }
+    }
+
+    @Benchmark
+    public void renderedAdapters(Blackhole bh) {
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = new Card(i, cards.get(i), collection);
+            bh.consume(card.nameProperty());
+            bh.consume(card.rarityProperty());
+            bh.consume(card.typeProperty());
+            bh.consume(card.colorProperty());
+            bh.consume(card.imageUrlProperty());
+            bh.consume(card.quantityOwnedProperty());
+        }
+    }
+}
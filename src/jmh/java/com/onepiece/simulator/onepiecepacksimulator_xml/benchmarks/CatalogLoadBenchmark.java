@@ -0,0 +1,107 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.google.gson.stream.JsonReader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BinaryCardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the catalog: streaming XML, the old DOM path, the binary catalog and the JSON
+ * resource. scale multiplies the real catalog (see {@link SyntheticCatalog}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogLoadBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private Path xml;
+    private Path catalog;
+    private long catalogCrc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<CardData> cards = SyntheticCatalog.scale(CardLoader.loadCards("/OnePieceCards.xml"), scale);
+        xml = Files.createTempFile("cards-x" + scale, ".xml");
+        SyntheticCatalog.writeXml(cards, xml);
+        catalog = Files.createTempFile("cards-x" + scale, ".bin");
+        catalogCrc = scale;
+        BinaryCardLoader.write(cards, catalogCrc, catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(xml);
+        Files.deleteIfExists(catalog);
+    }
+
+    @Benchmark
+    public List<CardData> staxXml() throws IOException {
+        return CardLoader.loadCards(xml.toUri().toURL(), progress -> { });
+    }
+
+    @Benchmark
+    public List<CardData> binaryCatalog() {
+        return BinaryCardLoader.read(catalog, catalogCrc);
+    }
+
+    /**
+     * The old DOM loader only reads classpath resources, so it always loads the real file.
+     */
+    @Benchmark
+    public List<CardData> domXml() {
+        return CardLoader.loadCardsDom("/OnePieceCards.xml");
+    }
+
+    /**
+     * OnePieceCards.json streamed with Gson; the app itself never reads it.
+     */
+    @Benchmark
+    public List<CardData> gsonJson() throws IOException {
+        List<CardData> cards = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                CatalogLoadBenchmark.class.getResourceAsStream("/OnePieceCards.json"), StandardCharsets.UTF_8))) {
+            Map<String, String> fields = new HashMap<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                fields.clear();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    fields.put(reader.nextName(), reader.nextString());
+                }
+                reader.endObject();
+                cards.add(new CardData(fields.get("id"), fields.get("name"), fields.get("rarity"), fields.get("type"),
+                        fields.get("attribute"), parseInt(fields.get("power")), parseInt(fields.get("counter")),
+                        fields.get("color"), fields.get("cardtype"), fields.get("effect"), fields.get("imageurl"),
+                        Boolean.parseBoolean(fields.get("alternateart")), fields.get("seriesid"), fields.get("seriesname")));
+            }
+            reader.endArray();
+        }
+        return cards;
+    }
+
+    private static int parseInt(String text) {
+        try {
+            return text == null ? 0 : Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Counter;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the instrumentation: a timed recording, a counter increment and an instrumented
+ * openPacks call, each in a JVM with metrics on and in one started with -Donepiece.metrics=false.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsBenchmark {
+
+    private static final String OFF = "-Donepiece.metrics=false";
+
+    private final LatencyHistogram histogram = Metrics.histogram("benchmark.histogram");
+    private final Counter counter = Metrics.counter("benchmark.counter");
+    private PackGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<CardData> cards = CardLoader.loadCards("/OnePieceCards.xml");
+        generator = new PackGenerator(cards, SetIndex.build(cards), 42);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public void timedEnabled() {
+        histogram.recordSince(Metrics.now());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = OFF)
+    public void timedDisabled() {
+        histogram.recordSince(Metrics.now());
+    }
+
+    @Benchmark
+    @Fork(1)
+    public void counterEnabled() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = OFF)
+    public void counterDisabled() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Fork(1)
+    public int[] openBoxEnabled() {
+        return generator.openPacks("OP-05", 24);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = OFF)
+    public int[] openBoxDisabled() {
+        return generator.openPacks("OP-05", 24);
+    }
+}
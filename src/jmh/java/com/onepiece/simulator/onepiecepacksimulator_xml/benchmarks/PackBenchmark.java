@@ -0,0 +1,63 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choosing a set's card pool and drawing a booster: the original openPackAction code (string
+ * rewriting per card, a new Random per pack) against SetIndex + PackGenerator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private List<CardData> cards;
+    private PackGenerator generator;
+    private final int[] bulk = new int[12 * 1000];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cards = SyntheticCatalog.scale(CardLoader.loadCards("/OnePieceCards.xml"), scale);
+        generator = new PackGenerator(cards, SetIndex.build(cards), 42);
+    }
+
+    @Benchmark
+    public List<CardData> originalOpenPack() {
+        String selectedCode = "OP-05";
+        List<CardData> cardPool = cards.stream()
+                .filter(card -> card.seriesName().replace(" ", "").contains("[" + selectedCode + "]")).toList();
+        List<CardData> pulled = new ArrayList<>();
+        Random random = new Random();
+        for (int i = 0; i < 12 && !cardPool.isEmpty(); i++) {
+            pulled.add(cardPool.get(random.nextInt(cardPool.size())));
+        }
+        return pulled;
+    }
+
+    @Benchmark
+    public int[] generatorOpenPack() {
+        return generator.openPack("OP-05");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public int[] generatorBulk1000() {
+        generator.openPacks("OP-05", 1000, bulk, 0);
+        return bulk;
+    }
+}
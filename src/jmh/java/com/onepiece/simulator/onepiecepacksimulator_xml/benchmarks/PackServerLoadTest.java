@@ -0,0 +1,120 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.ProfileStore;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PullLog;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BinaryCardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.server.PackServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for PackServer over real HTTP on localhost: a number of client threads each send
+ * "open one pack into a profile" requests back to back for a fixed time, spread over a number
+ * of profiles, and the latency of every request is recorded.
+ *
+ * Usage: PackServerLoadTest [--url http://localhost:8080] [--clients 16] [--profiles 8]
+ *                           [--seconds 10] [--packs 1] [--set OP-05] [--pulls true]
+ * With --profiles 0 the packs are not added to any profile, which measures the HTTP and
+ * generation overhead alone. Without --url a server is started in this JVM on a free port,
+ * with its profiles under target/benchmark-data; --pulls true also records every pack in a
+ * PullLog there.
+ */
+public class PackServerLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 16, profileCount = 8, seconds = 10, packs = 1;
+        String set = "OP-05";
+        boolean recordPulls = false;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url" -> url = args[i + 1];
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--profiles" -> profileCount = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--packs" -> packs = Integer.parseInt(args[i + 1]);
+                case "--set" -> set = args[i + 1];
+                case "--pulls" -> recordPulls = Boolean.parseBoolean(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        PackServer embedded = null;
+        if (url == null) {
+            List<CardData> catalog = BinaryCardLoader.loadCards("/OnePieceCards.xml");
+            ProfileStore profiles = new ProfileStore(Paths.get("target", "benchmark-data", "profiles"), catalog);
+            PullLog pulls = recordPulls ? new PullLog(Paths.get("target", "benchmark-data", "pulls"), catalog) : null;
+            embedded = new PackServer(catalog, profiles, pulls).start("127.0.0.1", 0, Math.max(4, clients));
+            url = "http://127.0.0.1:" + embedded.port();
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            final int id = c;
+            URI uri = URI.create(url + "/open?set=" + set + "&packs=" + packs
+                    + (profileCount > 0 ? "&profile=load-" + (c % profileCount) : ""));
+            HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build();
+            threads[c] = new Thread(() -> {
+                long[] mine = new long[1 << 16];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) errors.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (n == mine.length) mine = Arrays.copyOf(mine, n * 2);
+                    mine[n++] = System.nanoTime() - start;
+                }
+                latencies[id] = mine;
+                counts[id] = n;
+            }, "load-client-" + c);
+            threads[c].start();
+        }
+        long started = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("%d clients, %d profiles, %d pack(s) per request%s against %s%n", clients, profileCount, packs,
+                recordPulls ? ", pulls recorded" : "", url);
+        System.out.printf("%d requests in %.1f s: %.0f req/s, %d errors%n", total, elapsed, total / elapsed, errors.get());
+        System.out.printf("latency ms: p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+                percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 100));
+
+        if (embedded != null) {
+            embedded.stop();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,85 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.CardStorage;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.ProfileStore;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CardStorage's JSON and ProfileStore's binary profiles at different collection sizes. The
+ * fork writes under target/benchmark-data, never to the real save files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Donepiece.dataDir=target/benchmark-data")
+public class PersistenceBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int ownedEntries;
+
+    private Map<String, Integer> progress;
+    private Map<String, Integer> pack;
+    private ProfileStore profiles;
+    private int[] quantities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        progress = new HashMap<>();
+        for (int i = 0; i < ownedEntries; i++) {
+            progress.put(String.format("SYN%02d-%05d", i % 97, i), 1 + i % 4);
+        }
+        pack = new LinkedHashMap<>();
+        for (int i = 0; i < 12; i++) {
+            pack.put(String.format("SYN05-%05d", i), 2);
+        }
+        CardStorage.saveProgress(progress);
+
+        List<CardData> base = CardLoader.loadCards("/OnePieceCards.xml");
+        List<CardData> catalog = SyntheticCatalog.scale(base, (ownedEntries + base.size() - 1) / base.size());
+        profiles = ProfileStore.open(catalog);
+        quantities = new int[catalog.size()];
+        for (int i = 0; i < ownedEntries; i++) {
+            quantities[i] = 1 + i % 4;
+        }
+        profiles.save("bench", quantities);
+    }
+
+    @Benchmark
+    public void saveProfile() {
+        profiles.save("bench", quantities);
+    }
+
+    @Benchmark
+    public int[] loadProfile() {
+        return profiles.load("bench");
+    }
+
+    @Benchmark
+    public void saveProgress() {
+        CardStorage.saveProgress(progress);
+    }
+
+    @Benchmark
+    public Map<String, Integer> loadProgress() {
+        return CardStorage.loadProgress();
+    }
+
+    /**
+     * One opened pack written to the change log (includes the fsync).
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean appendPack() {
+        return CardStorage.appendProgress(pack);
+    }
+}
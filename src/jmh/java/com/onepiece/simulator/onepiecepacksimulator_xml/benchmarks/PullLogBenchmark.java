@@ -0,0 +1,93 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PullLog;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CompletionSimulator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.RarityBucket;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Analytics over a pull log of a million booster packs from 20 profiles across every set:
+ * hit rate per set, cards per rarity (everyone, and one profile in one set) and packs since
+ * the last secret rare. Reopening the log is timed once in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class PullLogBenchmark {
+
+    private static final int PACKS = 1_000_000;
+    private static final int BATCH = 10_000;
+
+    private Path dir;
+    private PullLog log;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<CardData> cards = CardLoader.loadCards("/OnePieceCards.xml");
+        SetIndex index = SetIndex.build(cards);
+        PackGenerator generator = new PackGenerator(cards, index, 42);
+        List<String> boosters = new ArrayList<>();
+        for (String code : index.codes()) {
+            if (!PackGenerator.isStarterDeck(code) && generator.packSize(code) > 0) boosters.add(code);
+        }
+        dir = Files.createTempDirectory("pulls");
+        PullLog writer = new PullLog(dir, cards);
+        Random random = new Random(42);
+        for (int written = 0; written < PACKS; written += BATCH) {
+            String code = boosters.get(random.nextInt(boosters.size()));
+            writer.record("p" + random.nextInt(20), code, generator.packSize(code), generator.openPacks(code, BATCH),
+                    written);
+        }
+        writer.close();
+        long start = System.nanoTime();
+        log = new PullLog(dir, cards);
+        System.out.printf("%nReopened %d packs in %.0f ms%n", log.packCount(), (System.nanoTime() - start) / 1e6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<PullLog.HitRate> hitRates() {
+        return log.hitRates(null, CompletionSimulator.SR_PLUS);
+    }
+
+    @Benchmark
+    public long[] pulledByBucketAll() {
+        return log.pulledByBucket(null, null);
+    }
+
+    @Benchmark
+    public long[] pulledByBucketProfileAndSet() {
+        return log.pulledByBucket("p3", "OP-05");
+    }
+
+    @Benchmark
+    public int packsSinceLastSecret() {
+        return log.packsSinceLast(RarityBucket.SECRET_RARE, "p3", null);
+    }
+}
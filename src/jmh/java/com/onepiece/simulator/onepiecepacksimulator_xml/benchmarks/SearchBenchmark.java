@@ -0,0 +1,62 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A text-plus-facet query from the search box: a lowercase contains() scan over every card
+ * against the CardSearchIndex, plus the cost of building the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private List<CardData> cards;
+    private CardSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cards = SyntheticCatalog.scale(CardLoader.loadCards("/OnePieceCards.xml"), scale);
+        index = CardSearchIndex.build(cards);
+    }
+
+    @Benchmark
+    public int scanSearch() {
+        int matches = 0;
+        for (CardData card : cards) {
+            String text = (card.name() + " " + card.effect() + " " + card.cardType()).toLowerCase(Locale.ROOT);
+            if (text.contains("luffy") && card.color().toLowerCase(Locale.ROOT).contains("red") && card.power() >= 5000) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public BitSet indexSearch() {
+        return index.search("luffy color:red power>=5000");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public CardSearchIndex buildIndex() {
+        return CardSearchIndex.build(cards);
+    }
+}
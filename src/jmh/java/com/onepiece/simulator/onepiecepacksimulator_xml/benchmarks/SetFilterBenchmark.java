@@ -0,0 +1,91 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Switching the table to a set and toggling "missing only", as filterBySet and
+ * applyMissingFilter do: once with a predicate over every card (the original approach), once
+ * through the SetIndex, and with the missing cards taken from the CollectionState bitsets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetFilterBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private ObservableList<Card> allCards;
+    private FilteredList<Card> scanFiltered;
+    private ObservableList<Card> setCards;
+    private FilteredList<Card> indexFiltered;
+    private SetIndex setIndex;
+    private CollectionState collection;
+    private final String seriesName = "AWAKENING OF THE NEW ERA- [OP-05]";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<CardData> data = SyntheticCatalog.scale(CardLoader.loadCards("/OnePieceCards.xml"), scale);
+        setIndex = SetIndex.build(data);
+        collection = new CollectionState(data, setIndex);
+        allCards = FXCollections.observableArrayList(
+                IntStream.range(0, data.size()).mapToObj(i -> new Card(i, data.get(i), collection)).toList());
+        for (int i = 0; i < allCards.size(); i += 3) {
+            allCards.get(i).setQuantityOwned(1);
+        }
+        scanFiltered = new FilteredList<>(allCards);
+        setCards = FXCollections.observableArrayList();
+        indexFiltered = new FilteredList<>(setCards);
+    }
+
+    @Benchmark
+    public int filterBySetScan() {
+        scanFiltered.setPredicate(card -> card.data().seriesName().equals(seriesName));
+        return scanFiltered.size();
+    }
+
+    @Benchmark
+    public int missingFilterScan() {
+        scanFiltered.setPredicate(card -> card.data().seriesName().equals(seriesName) && card.getQuantityOwned() == 0);
+        return scanFiltered.size();
+    }
+
+    @Benchmark
+    public int filterBySetIndex() {
+        setCards.setAll(setIndex.select(setIndex.codeForName(seriesName), allCards));
+        indexFiltered.setPredicate(null);
+        return indexFiltered.size();
+    }
+
+    @Benchmark
+    public int missingFilterIndex() {
+        setCards.setAll(setIndex.select(setIndex.codeForName(seriesName), allCards));
+        indexFiltered.setPredicate(card -> card.getQuantityOwned() == 0);
+        return indexFiltered.size();
+    }
+
+    @Benchmark
+    public int missingFilterBitset() {
+        String code = setIndex.codeForName(seriesName);
+        setCards.setAll(setIndex.select(code, allCards));
+        BitSet missing = collection.missing(code);
+        indexFiltered.setPredicate(card -> missing.get(card.position()));
+        return indexFiltered.size();
+    }
+}
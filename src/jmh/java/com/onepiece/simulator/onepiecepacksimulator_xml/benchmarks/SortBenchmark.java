@@ -0,0 +1,108 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSortKeys;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Re-sorting the card table by ID and by rarity: comparators that parse the ID and rank the
+ * rarity string on every comparison, against the keys {@link CardSortKeys} computes once.
+ * Runs on the real catalog and on one scaled to about 100,000 rows; each invocation sorts a
+ * fresh copy of the same shuffled rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+    private static final List<String> RARITY_ORDER = List.of("C", "UC", "R", "SR", "SEC", "L", "P", "SP CARD", "TR");
+
+    /** Copies of the catalog; 35 copies is about 100,000 rows. */
+    @Param({"1", "35"})
+    public int scale;
+
+    private Card[] shuffled;
+    private Comparator<Card> keyedById;
+    private Comparator<Card> keyedByRarity;
+    private Comparator<Card> parsedById;
+    private Comparator<Card> parsedByRarity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<CardData> cards = SyntheticCatalog.scale(CardLoader.loadCards("/OnePieceCards.xml"), scale);
+        CollectionState collection = new CollectionState(cards, SetIndex.build(cards));
+        List<Card> rows = new ArrayList<>(IntStream.range(0, cards.size())
+                .mapToObj(i -> new Card(i, cards.get(i), collection)).toList());
+        Collections.shuffle(rows, new Random(42));
+        shuffled = rows.toArray(new Card[0]);
+
+        CardSortKeys keys = CardSortKeys.build(cards);
+        keyedById = keys.byId().thenComparing(CardSortKeys.byPosition());
+        keyedByRarity = keys.byRarity().thenComparing(CardSortKeys.byPosition());
+        parsedById = Comparator.<Card, String>comparing(card -> idPrefix(card.data().id()))
+                .thenComparingInt(card -> setNumber(card.data().id()))
+                .thenComparingInt(card -> collectorNumber(card.data().id()))
+                .thenComparing(card -> card.data().alternateArt())
+                .thenComparing(CardSortKeys.byPosition());
+        parsedByRarity = Comparator.<Card>comparingInt(card -> RARITY_ORDER.indexOf(card.data().rarity()))
+                .thenComparing(card -> card.data().alternateArt())
+                .thenComparing(CardSortKeys.byPosition());
+    }
+
+    // What a comparator without precomputed keys does: split and parse the ID string each time.
+    private static String idPrefix(String id) {
+        return id.split("-")[0].replaceAll("\\d", "");
+    }
+
+    private static int setNumber(String id) {
+        String digits = id.split("-")[0].replaceAll("\\D", "");
+        return digits.isEmpty() ? 0 : Integer.parseInt(digits);
+    }
+
+    private static int collectorNumber(String id) {
+        String[] parts = id.split("-");
+        return parts.length < 2 ? 0 : Integer.parseInt(parts[1].replaceAll("\\D.*", ""));
+    }
+
+    private Card[] sort(Comparator<Card> order) {
+        Card[] rows = shuffled.clone();
+        Arrays.sort(rows, order);
+        return rows;
+    }
+
+    @Benchmark
+    public Card[] sortByIdKeys() {
+        return sort(keyedById);
+    }
+
+    @Benchmark
+    public Card[] sortByIdParsed() {
+        return sort(parsedById);
+    }
+
+    @Benchmark
+    public Card[] sortByRarityKeys() {
+        return sort(keyedByRarity);
+    }
+
+    @Benchmark
+    public Card[] sortByRarityParsed() {
+        return sort(parsedByRarity);
+    }
+}
@@ -0,0 +1,77 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scales the real catalog up for benchmarks. Copy n of every card gets "#n" appended to
+ * its ID and set code, so a 10x catalog has ten times the cards and ten times the sets,
+ * with the same rarity mix per set as the real data.
+ */
+public final class SyntheticCatalog {
+
+    private SyntheticCatalog() {
+    }
+
+    public static List<CardData> scale(List<CardData> base, int factor) {
+        List<CardData> cards = new ArrayList<>(base.size() * factor);
+        for (int copy = 0; copy < factor; copy++) {
+            for (CardData card : base) {
+                cards.add(copy == 0 ? card : copyOf(card, "#" + copy));
+            }
+        }
+        return cards;
+    }
+
+    private static CardData copyOf(CardData card, String suffix) {
+        String seriesName = card.seriesName();
+        int close = seriesName.lastIndexOf(']');
+        seriesName = close >= 0
+                ? seriesName.substring(0, close) + suffix + seriesName.substring(close)
+                : seriesName + suffix;
+        return new CardData(card.id() + suffix, card.name(), card.rarity(), card.type(), card.attribute(),
+                card.power(), card.counter(), card.color(), card.cardType(), card.effect(),
+                card.imageUrl() + suffix, card.alternateArt(), card.seriesId(), seriesName);
+    }
+
+    /**
+     * Writes cards in the same XML layout as OnePieceCards.xml.
+     */
+    public static void writeXml(List<CardData> cards, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" ?>\n<cards>\n");
+            for (CardData card : cards) {
+                out.write("  <card>\n");
+                tag(out, "id", card.id());
+                tag(out, "name", card.name());
+                tag(out, "rarity", card.rarity());
+                tag(out, "type", card.type());
+                tag(out, "attribute", card.attribute());
+                tag(out, "power", card.power() == 0 ? "-" : Integer.toString(card.power()));
+                tag(out, "counter", card.counter() == 0 ? "-" : Integer.toString(card.counter()));
+                tag(out, "color", card.color());
+                tag(out, "cardtype", card.cardType());
+                tag(out, "effect", card.effect());
+                tag(out, "imageurl", card.imageUrl());
+                tag(out, "alternateart", card.alternateArt() ? "True" : "False");
+                tag(out, "seriesid", card.seriesId());
+                tag(out, "seriesname", card.seriesName());
+                out.write("  </card>\n");
+            }
+            out.write("</cards>\n");
+        }
+    }
+
+    private static void tag(Writer out, String name, String value) throws IOException {
+        out.write("    <" + name + ">");
+        out.write(value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+        out.write("</" + name + ">\n");
+    }
+}
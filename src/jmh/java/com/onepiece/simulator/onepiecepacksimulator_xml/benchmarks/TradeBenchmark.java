@@ -0,0 +1,105 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.RarityBucket;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.TradeEngine;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.TradeMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade matching across many synthetic collections, each 72 packs from three random sets:
+ * partners for one profile by scanning every card of every pair (the baseline) and with the
+ * TradeMatrix bitsets, three-way cycles, and pairing everyone with matchAll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeBenchmark {
+
+    @Param({"1000", "5000"})
+    public int profiles;
+
+    private List<CardData> cards;
+    private int[] buckets;
+    private List<int[]> rows;
+    private TradeEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cards = CardLoader.loadCards("/OnePieceCards.xml");
+        SetIndex index = SetIndex.build(cards);
+        List<String> codes = new ArrayList<>(index.codes());
+        buckets = new int[cards.size()];
+        for (int position = 0; position < cards.size(); position++) {
+            buckets[position] = RarityBucket.of(cards.get(position)).ordinal();
+        }
+        Random random = new Random(42);
+        TradeMatrix.Builder builder = TradeMatrix.builder(cards);
+        rows = new ArrayList<>();
+        for (int p = 0; p < profiles; p++) {
+            PackGenerator generator = new PackGenerator(cards, index, random.nextLong());
+            int[] quantities = new int[cards.size()];
+            for (int s = 0; s < 3; s++) {
+                String code = codes.get(random.nextInt(codes.size()));
+                int[] pulled = new int[24 * generator.packSize(code)];
+                generator.openPacks(code, 24, pulled, 0);
+                for (int position : pulled) {
+                    quantities[position]++;
+                }
+            }
+            rows.add(quantities);
+            builder.add("p" + p, quantities);
+        }
+        engine = new TradeEngine(builder.build());
+    }
+
+    @Benchmark
+    public int baselinePartners() {
+        int[] self = rows.get(0);
+        int best = 0;
+        for (int other = 1; other < rows.size(); other++) {
+            int[] row = rows.get(other);
+            int[] gives = new int[RarityBucket.values().length];
+            int[] gets = new int[gives.length];
+            for (int position = 0; position < self.length; position++) {
+                if (self[position] >= 2 && row[position] == 0) gives[buckets[position]]++;
+                if (row[position] >= 2 && self[position] == 0) gets[buckets[position]]++;
+            }
+            int swaps = 0;
+            for (int b = 0; b < gives.length; b++) {
+                swaps += Math.min(gives[b], gets[b]);
+            }
+            best = Math.max(best, swaps);
+        }
+        return best;
+    }
+
+    @Benchmark
+    public List<TradeEngine.Trade> partners() {
+        return engine.partners(0, 10);
+    }
+
+    @Benchmark
+    public List<TradeEngine.Cycle> cycles() {
+        return engine.cycles(0, 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public List<TradeEngine.Trade> matchAll() {
+        return engine.matchAll();
+    }
+}
@@ -0,0 +1,96 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.benchmarks;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PriceHistory;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PriceTable;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collection value: one increment with the running totals against re-summing every card after
+ * it, and the value at every snapshot of a price history where a tenth of the prices move
+ * between snapshots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValuationBenchmark {
+
+    @Param({"500"})
+    public int snapshots;
+
+    private CollectionState collection;
+    private int[] prices;
+    private int[] quantities;
+    private PriceHistory history;
+    private Path file;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<CardData> cards = CardLoader.loadCards("/OnePieceCards.xml");
+        Random random = new Random(42);
+        prices = new int[cards.size()];
+        quantities = new int[cards.size()];
+        for (int position = 0; position < prices.length; position++) {
+            prices[position] = random.nextInt(5000);
+            quantities[position] = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(4);
+        }
+        collection = new CollectionState(cards, SetIndex.build(cards));
+        collection.load(quantities);
+        collection.setPrices(PriceTable.of(prices));
+
+        file = Files.createTempFile("price-history", ".bin");
+        Files.delete(file);
+        history = new PriceHistory(file, cards);
+        int[] moving = prices.clone();
+        for (int s = 0; s < snapshots; s++) {
+            for (int i = 0; i < moving.length / 10; i++) {
+                int position = random.nextInt(moving.length);
+                moving[position] = Math.max(0, moving[position] + random.nextInt(201) - 100);
+            }
+            history.append(s * 86_400_000L, PriceTable.of(moving));
+        }
+        System.out.printf("%n%d snapshots in %d bytes%n", snapshots, Files.size(file));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long incrementalValue() {
+        int position = next++ % quantities.length;
+        collection.increment(position);
+        return collection.value();
+    }
+
+    @Benchmark
+    public long resumValue() {
+        int position = next++ % quantities.length;
+        quantities[position]++;
+        long value = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            value += (long) quantities[i] * prices[i];
+        }
+        return value;
+    }
+
+    @Benchmark
+    public long[] valueOverTime() {
+        return history.valueOverTime(quantities);
+    }
+}
@@ -1,18 +1,35 @@
 package com.onepiece.simulator.onepiecepacksimulator_xml;
 
-import com.onepiece.simulator.onepiecepacksimulator_xml.data.CardStorage;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.DeckLibrary;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.ProfileStore;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PullLog;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BoxSummary;
 import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
-import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSearchIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSortKeys;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckRules;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PriceTable;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.RarityBucket;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+import com.onepiece.simulator.onepiecepacksimulator_xml.ui.CatalogLoadTask;
+import com.onepiece.simulator.onepiecepacksimulator_xml.ui.DeckBuilderView;
+import com.onepiece.simulator.onepiecepacksimulator_xml.ui.ImageCache;
 import com.onepiece.simulator.onepiecepacksimulator_xml.ui.PackPopupOpener;
 import com.onepiece.simulator.onepiecepacksimulator_xml.ui.PackSelectView;
+import com.onepiece.simulator.onepiecepacksimulator_xml.ui.VariantTreeView;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -21,48 +38,96 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class OnePieceApp extends Application {
 
+    private static final int BOX_PACKS = 24;
+    private static final int CASE_PACKS = 12 * BOX_PACKS;
+
+    private static final LatencyHistogram SET_FILTER = Metrics.histogram("ui.filter.set");
+    private static final LatencyHistogram PREDICATE = Metrics.histogram("ui.filter.predicate");
+    private static final Set<String> MUTABLE_COLUMNS = Set.of("Price", "Quantity Owned"); // Re-sorted after changes
+
     private ObservableList<Card> allCards;
+    private List<CardData> catalogData; // allCards' data, by catalog position
+    private ObservableList<Card> setCards; // Cards of the selected set, or all cards while searching
+    private SetIndex setIndex;
+    private CardSearchIndex searchIndex;
+    private CollectionState collection; // Owned quantities; the table's cards read from it
+    private ProfileStore profiles;
+    private String currentProfile = ProfileStore.DEFAULT_PROFILE;
+    private ComboBox<String> profileSelector;
+    private BitSet searchMatches; // Catalog positions matching the search box, null when it is empty
+    private boolean missingOnly = false;
+    private PackGenerator packGenerator;
+    private PullLog pulls; // Every pack added to a collection
+    private DeckRules deckRules; // Built when the deck builder is first opened
+    private DeckLibrary deckLibrary;
     private TableView<Card> tableView;
     private ComboBox<String> setSelector;
+    private Label completionLabel;
     private FilteredList<Card> filteredCards;
+    private SortedList<Card> sortedCards; // filteredCards in the order of the clicked column headers
+    private CardSortKeys sortKeys;
+    private final Map<String, Comparator<Card>> rowOrder = new HashMap<>(); // By column title, built once the cards load
+    private List<String> sortColumns = List.of(); // The sort order both views show, by column title
+    private BitSet sortDescending = new BitSet();
+    private VariantTreeView variantTree; // Created the first time alt arts are grouped
+    private BorderPane root;
     private boolean cardsHaveBeenLoaded = false; // Flag to control the one-time load
-    private final Map<String, Image> imageCache = new LinkedHashMap<>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
-            return size() > 200;
-        }
-    };
+    private CatalogLoadTask loadTask;
+    private final List<Runnable> pendingActions = new ArrayList<>(); // Run once the load finishes
+    private final ImageCache imageCache = ImageCache.shared();
 
     @Override
     public void start(Stage primaryStage) {
+        Metrics.startLoggingFromProperties();
         // --- FAST STARTUP ---
         allCards = FXCollections.observableArrayList();
-        filteredCards = new FilteredList<>(allCards, p -> true);
+        setCards = FXCollections.observableArrayList();
+        filteredCards = new FilteredList<>(setCards, p -> true);
+        sortedCards = new SortedList<>(filteredCards);
 
         // --- UI COMPONENTS ---
         tableView = createTableView();
-        tableView.setItems(filteredCards);
+        tableView.setItems(sortedCards);
         tableView.setPlaceholder(new Label("Please select a set from the dropdown menu to display cards."));
 
-        setSelector = createSetSelector(); // Uses a hardcoded list for speed
+        setSelector = createSetSelector(); // Filled from the catalog once it has loaded
+        ProgressBar loadProgress = new ProgressBar();
+        Label loadStatus = new Label();
+        profileSelector = new ComboBox<>();
+        profileSelector.setEditable(true); // Typing a new name creates a profile
+        profileSelector.setPromptText("Profile");
+        profileSelector.setValue(currentProfile);
         Button openPackButton = new Button("Open Pack");
+        Button openBoxButton = new Button("Open Box");
         Button resetSetButton = new Button("Reset This Set");
+        Button browseSetButton = new Button("Browse Set");
+        Button deckBuilderButton = new Button("Deck Builder");
         CheckBox missingOnlyCheckbox = new CheckBox("Show Only Missing Cards");
+        CheckBox groupVariantsCheckbox = new CheckBox("Group Alt Arts");
+        completionLabel = new Label();
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search all sets (e.g. luffy color:red power>=5000)");
+        searchField.setPrefColumnCount(28);
 
         // --- UI ACTIONS ---
-        setSelector.setOnAction(e -> handleSetSelection());
-        resetSetButton.setOnAction(e -> confirmReset());
-        missingOnlyCheckbox.setOnAction(e -> applyMissingFilter(missingOnlyCheckbox.isSelected()));
-        openPackButton.setOnAction(e -> openPackAction());
+        setSelector.setOnAction(e -> whenLoaded(this::filterBySet));
+        profileSelector.setOnAction(e -> whenLoaded(() -> switchProfile(profileSelector.getValue())));
+        resetSetButton.setOnAction(e -> whenLoaded(this::confirmReset));
+        browseSetButton.setOnAction(e -> whenLoaded(this::browseSet));
+        deckBuilderButton.setOnAction(e -> whenLoaded(this::openDeckBuilder));
+        missingOnlyCheckbox.setOnAction(e -> whenLoaded(() -> applyMissingFilter(missingOnlyCheckbox.isSelected())));
+        groupVariantsCheckbox.setOnAction(e -> whenLoaded(() -> showVariantTree(groupVariantsCheckbox.isSelected())));
+        openPackButton.setOnAction(e -> whenLoaded(this::openPackAction));
+        openBoxButton.setOnAction(e -> whenLoaded(this::openBoxAction));
+        searchField.textProperty().addListener((obs, old, text) -> whenLoaded(() -> applySearch(searchField.getText())));
 
         // --- LAYOUT ---
-        HBox controls = new HBox(10, setSelector, openPackButton, resetSetButton, missingOnlyCheckbox);
+        HBox controls = new HBox(10, profileSelector, setSelector, openPackButton, openBoxButton, resetSetButton, browseSetButton, deckBuilderButton, missingOnlyCheckbox, groupVariantsCheckbox, searchField, completionLabel, loadProgress, loadStatus);
         controls.setPadding(new Insets(10));
-        BorderPane root = new BorderPane(tableView);
+        root = new BorderPane(tableView);
         root.setTop(controls);
 
         // --- SHOW THE STAGE ---
@@ -70,116 +135,255 @@ public class OnePieceApp extends Application {
         primaryStage.setScene(scene);
         primaryStage.setTitle("One Piece Pack Simulator");
         primaryStage.setOnCloseRequest(e -> {
-            if (allCards != null && !allCards.isEmpty()) {
-                CardStorage.saveProgress(allCards);
+            // A load still in flight has not touched the save file; only a finished one is saved.
+            loadTask.cancel();
+            if (cardsHaveBeenLoaded) {
+                saveCollection();
+                pulls.close();
             }
         });
         primaryStage.show();
+
+        // --- BACKGROUND LOAD ---
+        loadTask = new CatalogLoadTask("/OnePieceCards.xml", currentProfile);
+        loadProgress.progressProperty().bind(loadTask.progressProperty());
+        loadProgress.visibleProperty().bind(loadTask.runningProperty());
+        loadProgress.managedProperty().bind(loadTask.runningProperty());
+        loadStatus.textProperty().bind(loadTask.messageProperty());
+        loadTask.setOnSucceeded(e -> onCatalogLoaded(loadTask.getValue()));
+        loadTask.setOnFailed(e -> {
+            pendingActions.clear();
+            loadTask.getException().printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Failed to load card data. The application cannot proceed.").showAndWait();
+        });
+        loadTask.start();
     }
 
     /**
-     * This method handles the logic for loading all cards into memory ONCE,
-     * the very first time a set is selected.
+     * Runs on the FX thread when the background load finishes: the whole catalog goes into
+     * the table's source list in one change, then any clicks made while loading are replayed.
      */
-    private void handleSetSelection() {
-        if (!cardsHaveBeenLoaded) {
-            System.out.println("First-time selection detected. Lazy loading all card data into memory...");
-            List<Card> loadedCards = CardLoader.loadCards("/OnePieceCards.xml");
-            if (loadedCards.isEmpty()) {
-                new Alert(Alert.AlertType.ERROR, "Failed to load card data. The application cannot proceed.").showAndWait();
-                return;
-            }
-            allCards.setAll(loadedCards);
-            CardStorage.loadProgress(allCards);
-            cardsHaveBeenLoaded = true;
-            System.out.println("Lazy loading complete. " + allCards.size() + " cards are now ready.");
+    private void onCatalogLoaded(CatalogLoadTask.Catalog catalog) {
+        setIndex = catalog.setIndex();
+        searchIndex = catalog.searchIndex();
+        collection = catalog.collection();
+        profiles = catalog.profiles();
+        profileSelector.getItems().setAll(profiles.profiles());
+        packGenerator = catalog.packGenerator();
+        pulls = catalog.pulls();
+        sortKeys = catalog.sortKeys();
+        buildRowOrder();
+        allCards.setAll(catalog.cards());
+        catalogData = catalog.cards().stream().map(Card::data).toList();
+        setSelector.getItems().setAll(setIndex.seriesNames());
+        setSelector.setPromptText("Select a Set");
+        cardsHaveBeenLoaded = true;
+        System.out.println("Loading complete. " + allCards.size() + " cards in " + setIndex.setCount() + " sets are now ready.");
+
+        List<Runnable> queued = new ArrayList<>(pendingActions);
+        pendingActions.clear();
+        queued.forEach(Runnable::run);
+    }
+
+    /**
+     * Runs the action now if the cards are loaded, otherwise queues it for when they are.
+     */
+    private void whenLoaded(Runnable action) {
+        if (cardsHaveBeenLoaded) {
+            action.run();
+        } else {
+            pendingActions.add(action);
+        }
+    }
+
+    /**
+     * Saves the current profile and loads another (or starts a new, empty one) into the same
+     * CollectionState, so the table, filters and completion figures follow along.
+     */
+    private void switchProfile(String profile) {
+        if (profile == null || profile.equals(currentProfile)) return;
+        if (!ProfileStore.isValidName(profile)) {
+            new Alert(Alert.AlertType.WARNING, "Profile names may only contain letters, digits, '-' and '_'.").showAndWait();
+            profileSelector.setValue(currentProfile);
+            return;
         }
-        // After the one-time load, this just filters the view, which is instantaneous.
-        filterBySet();
+        saveCollection();
+        collection.load(profiles.load(profile));
+        currentProfile = profile;
+        if (!profileSelector.getItems().contains(profile)) {
+            saveCollection();
+            profileSelector.getItems().setAll(profiles.profiles());
+            profileSelector.setValue(profile);
+        }
+        updatePredicate();
+        refreshRows();
     }
 
     /**
-     * Filters the already-loaded card list based on the dropdown selection.
+     * Shows the already-loaded cards of the set chosen in the dropdown.
      */
     private void filterBySet() {
         String selectedSet = setSelector.getValue();
         if (selectedSet == null) return;
-        
-        filteredCards.setPredicate(card -> card.seriesNameProperty().get().equals(selectedSet));
+
+        long start = Metrics.now();
+        if (searchMatches == null) { // A search shows every set
+            setCards.setAll(setIndex.select(setIndex.codeForName(selectedSet), allCards));
+        }
+        updatePredicate();
+        SET_FILTER.recordSince(start);
     }
 
-    private ComboBox<String> createSetSelector() {
-        List<String> setNames = List.of(
-            "ROMANCE DAWN- [OP-01]", "PARAMOUNT WAR- [OP-02]", 
-            "PILLARS OF STRENGTH- [OP-03]", "KINGDOMS OF INTRIGUE- [OP-04]", 
-            "AWAKENING OF THE NEW ERA- [OP-05]", "WINGS OF THE CAPTAIN- [OP-06]", 
-            "500 YEARS IN THE FUTURE- [OP-07]", "TWO LEGENDS- [OP-08]", 
-            "Starter Deck ANIMAL KINGDOM PIRATES- [ST-04]", "Starter Deck ONE PIECE FILM RED- [ST-05]", 
-            "Starter Deck THE SEVEN WARLORDS OF THE SEA- [ST-03]", "Starter Deck WORST GENERATION- [ST-02]", 
-            "Starter Deck STRAW HAT CREW- [ST-01]", "Starter Deck ZORO & SANJI- [ST-12]", 
-            "Starter Deck THE THREE CAPTAINS- [ST-10]", "Starter Deck YAMATO- [ST-09]", 
-            "Starter Deck BIG MOM PIRATES- [ST-07]", "Starter Deck NAVY- [ST-06]", 
-            "Starter Deck UTA- [ST-11]", "Starter Deck LUFFY- [ST-08]"
-        );
-        
-        List<String> sortedSetNames = setNames.stream().sorted().collect(Collectors.toList());
-        
-        ComboBox<String> comboBox = new ComboBox<>(FXCollections.observableArrayList(sortedSetNames));
-        comboBox.setPromptText("Select a Set to Load Cards");
-        return comboBox;
+    /**
+     * Runs the query against the search index and shows the matches from all sets. Clearing
+     * the box goes back to the selected set.
+     */
+    private void applySearch(String query) {
+        boolean wasSearching = searchMatches != null;
+        searchMatches = query.isBlank() ? null : searchIndex.search(query);
+        if (searchMatches != null && !wasSearching) {
+            setCards.setAll(allCards);
+        } else if (searchMatches == null && wasSearching) {
+            setCards.clear();
+            filterBySet();
+        }
+        updatePredicate();
     }
 
-    private void openPackAction() {
-        if (!cardsHaveBeenLoaded) {
-            new Alert(Alert.AlertType.INFORMATION, "Please select a set from the dropdown to load the card database first.").showAndWait();
+    /**
+     * Works out which catalog positions are visible with bitset operations (search matches,
+     * minus owned cards when "missing only" is ticked), then tests each card with one bit
+     * lookup. Cheap enough to run after every collection change.
+     */
+    private void updatePredicate() {
+        long start = Metrics.now();
+        String selectedSet = setSelector.getValue();
+        BitSet visible = null;
+        if (searchMatches != null) {
+            visible = missingOnly ? collection.missingAmong(searchMatches) : searchMatches;
+        } else if (missingOnly && selectedSet != null) {
+            visible = collection.missing(setIndex.codeForName(selectedSet));
+        }
+        BitSet shown = visible;
+        filteredCards.setPredicate(shown == null ? null : card -> shown.get(card.position()));
+        PREDICATE.recordSince(start);
+        updateCompletion();
+    }
+
+    private void updateCompletion() {
+        String selectedSet = setSelector.getValue();
+        if (selectedSet == null) {
+            completionLabel.setText("");
             return;
         }
-        Map<String, String> packLabels = new TreeMap<>();
-        for (Card card : allCards) {
-            String fullName = card.seriesNameProperty().get();
-            if (!packLabels.containsKey(fullName)) {
-                String code = fullName.replaceAll(".*\\[(.*)]", "$1").trim();
-                String label = code + "\n" + fullName.replaceAll("-\\s*\\[.*]", "").trim();
-                packLabels.put(code, label);
+        CollectionState.Completion completion = collection.completion(setIndex.codeForName(selectedSet));
+        StringBuilder text = new StringBuilder(String.format("%s: %d/%d owned",
+                completion.setCode(), completion.owned(), completion.total()));
+        for (RarityBucket bucket : RarityBucket.values()) {
+            if (completion.total(bucket) > 0) {
+                text.append(String.format("  %s %d/%d", shortName(bucket), completion.owned(bucket), completion.total(bucket)));
             }
         }
-        PackSelectView.show(packLabels, selectedCode -> {
-            List<Card> cardPool = allCards.stream().filter(card -> card.seriesNameProperty().get().replace(" ", "").contains("[" + selectedCode + "]")).toList();
-            if (cardPool.isEmpty()) { new Alert(Alert.AlertType.WARNING, "No cards found for set: " + selectedCode).showAndWait(); return; }
-            List<Card> pulledCards = new ArrayList<>();
-            boolean isStarterDeck = selectedCode.startsWith("ST-");
-            if (isStarterDeck) { pulledCards.addAll(cardPool); } else {
-                Random random = new Random();
-                for (int i = 0; i < 12 && !cardPool.isEmpty(); i++) { pulledCards.add(cardPool.get(random.nextInt(cardPool.size()))); }
-            }
+        if (collection.value() > 0) {
+            text.append(String.format("  value %s (total %s)", PriceTable.format(collection.value(completion.setCode())),
+                    PriceTable.format(collection.value())));
+        }
+        completionLabel.setText(text.toString());
+    }
+
+    private static String shortName(RarityBucket bucket) {
+        return switch (bucket) {
+            case COMMON -> "C";
+            case UNCOMMON -> "UC";
+            case RARE -> "R";
+            case SUPER_RARE -> "SR";
+            case SECRET_RARE -> "SEC";
+            case LEADER -> "L";
+            case ALT_ART -> "Alt";
+        };
+    }
+
+    private ComboBox<String> createSetSelector() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setPromptText("Loading sets...");
+        return comboBox;
+    }
+
+    private void openPackAction() {
+        PackSelectView.show(setIndex.packLabels(), selectedCode -> {
+            if (packGenerator.packSize(selectedCode) == 0) { new Alert(Alert.AlertType.WARNING, "No cards found for set: " + selectedCode).showAndWait(); return; }
+            int[] pulled = packGenerator.openPack(selectedCode);
+            List<Card> pulledCards = PackGenerator.cardsAt(pulled, allCards);
             PackPopupOpener.openPack("https://cdn.onepiece-cardgame.com/images/pack/thumbnail_OP-05.png", pulledCards, cards -> {
                 for (Card c : cards) { c.incrementQuantity(); }
-                tableView.refresh();
+                saveCollection();
+                updatePredicate();
+                refreshRows();
+                recordPulls(selectedCode, pulled.length, pulled);
+            });
+        });
+    }
+
+    /**
+     * Opens a whole box in one go: the packs are generated in one batch, shown as one
+     * summary, and added to the collection with one update, one save and one table refresh.
+     */
+    private void openBoxAction() {
+        PackSelectView.show(setIndex.packLabels(), selectedCode -> {
+            if (packGenerator.packSize(selectedCode) == 0) { new Alert(Alert.AlertType.WARNING, "No cards found for set: " + selectedCode).showAndWait(); return; }
+            ChoiceDialog<Integer> packsDialog = new ChoiceDialog<>(BOX_PACKS, List.of(1, 6, 12, BOX_PACKS, 2 * BOX_PACKS, CASE_PACKS));
+            packsDialog.setTitle("Open Box");
+            packsDialog.setHeaderText("How many " + selectedCode + " packs?");
+            packsDialog.showAndWait().ifPresent(packs -> {
+                int[] pulled = packGenerator.openPacks(selectedCode, packs);
+                BoxSummary summary = BoxSummary.of(selectedCode, packs, pulled, catalogData, collection);
+                PackPopupOpener.showBoxSummary(summary, allCards, () -> {
+                    summary.applyTo(collection);
+                    saveCollection();
+                    updatePredicate();
+                    refreshRows();
+                    recordPulls(selectedCode, pulled.length / packs, pulled);
+                });
             });
         });
     }
 
+    /**
+     * Adds opened packs to the pull history. Runs after the collection is saved and shown, so
+     * a pull history that cannot be written never costs the pulled cards; the failure is
+     * reported like a failed save.
+     */
+    private void recordPulls(String setCode, int packSize, int[] pulled) {
+        try {
+            pulls.record(currentProfile, setCode, packSize, pulled, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            System.err.println("Error saving pull history: " + e.getMessage());
+        }
+    }
+
     private void applyMissingFilter(boolean missingOnly) {
-        if (!cardsHaveBeenLoaded) return;
+        this.missingOnly = missingOnly;
+        updatePredicate();
+    }
+    
+    private void browseSet() {
         String selectedSet = setSelector.getValue();
         if (selectedSet == null) return;
-        filteredCards.setPredicate(card -> {
-            boolean inSet = card.seriesNameProperty().get().equals(selectedSet);
-            boolean isMissing = card.quantityOwnedProperty().get() == 0;
-            return missingOnly ? inSet && isMissing : inSet;
-        });
+        PackPopupOpener.showGallery(selectedSet, setIndex.select(setIndex.codeForName(selectedSet), allCards));
     }
-    
+
     private void confirmReset() {
-        if (!cardsHaveBeenLoaded) return;
         String selectedSet = setSelector.getValue();
         if (selectedSet == null) return;
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Are you sure? This will reset all cards in this set to 0.", new ButtonType("Yes, Reset"), ButtonType.CANCEL);
         alert.setHeaderText("Reset collection for set: " + selectedSet);
         alert.showAndWait().ifPresent(response -> {
             if (response.getText().equals("Yes, Reset")) {
-                allCards.stream().filter(card -> card.seriesNameProperty().get().equals(selectedSet)).forEach(Card::resetQuantity);
-                tableView.refresh();
+                String code = setIndex.codeForName(selectedSet);
+                collection.resetSet(code);
+                saveCollection();
+                updatePredicate();
+                refreshRows();
             }
         });
     }
@@ -202,8 +406,8 @@ public class OnePieceApp extends Application {
 
                 clickablePane.setOnMouseClicked(event -> {
                     if (currentImageUrl != null && !currentImageUrl.isEmpty()) {
-                        Image fullImage = new Image(currentImageUrl, true);
-                        ImageView expandedView = new ImageView(fullImage);
+                        ImageView expandedView = new ImageView();
+                        imageCache.loadInto(expandedView, currentImageUrl, 400, 560);
                         expandedView.setPreserveRatio(true);
                         expandedView.setFitWidth(400);
 
@@ -224,15 +428,11 @@ public class OnePieceApp extends Application {
                 super.updateItem(imageUrl, empty);
                 if (empty || imageUrl == null || imageUrl.isEmpty()) {
                     setGraphic(null);
+                    imageView.setUserData(null);
                     currentImageUrl = null;
                 } else {
                     currentImageUrl = imageUrl;
-                    Image image = imageCache.get(imageUrl);
-                    if (image == null) {
-                        image = new Image(imageUrl, 60, 90, true, true, true);
-                        imageCache.put(imageUrl, image);
-                    }
-                    imageView.setImage(image);
+                    imageCache.loadInto(imageView, imageUrl, 60, 90);
                     setGraphic(clickablePane);
                 }
             }
@@ -246,13 +446,133 @@ public class OnePieceApp extends Application {
         typeCol.setCellValueFactory(data -> data.getValue().typeProperty());
         TableColumn<Card, String> colorCol = new TableColumn<>("Color");
         colorCol.setCellValueFactory(data -> data.getValue().colorProperty());
+        TableColumn<Card, Number> priceCol = new TableColumn<>("Price");
+        priceCol.setCellValueFactory(data -> data.getValue().priceProperty());
+        priceCol.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Number cents, boolean empty) {
+                super.updateItem(cents, empty);
+                setText(empty || cents == null || cents.intValue() == 0 ? null : PriceTable.format(cents.intValue()));
+            }
+        });
         TableColumn<Card, Number> quantityCol = new TableColumn<>("Quantity Owned");
         quantityCol.setCellValueFactory(data -> data.getValue().quantityOwnedProperty());
 
-        table.getColumns().setAll(List.of(imageCol, nameCol, rarityCol, typeCol, colorCol, quantityCol));
+        TableColumn<Card, String> idCol = new TableColumn<>("ID");
+        idCol.setCellValueFactory(data -> data.getValue().idProperty());
+        imageCol.setSortable(false);
+
+        table.setSortPolicy(t -> {
+            if (sortKeys == null) return false; // Nothing to sort until the cards have loaded
+            List<String> titles = new ArrayList<>();
+            BitSet descending = new BitSet();
+            for (TableColumn<Card, ?> column : t.getSortOrder()) {
+                if (column.getSortType() == TableColumn.SortType.DESCENDING) descending.set(titles.size());
+                titles.add(column.getText());
+            }
+            applySort(titles, descending);
+            return true;
+        });
+        table.getColumns().setAll(List.of(imageCol, nameCol, idCol, rarityCol, typeCol, colorCol, priceCol, quantityCol));
         return table;
     }
 
+    /**
+     * One comparator per sortable column. Rarity and ID compare the precomputed
+     * {@link CardSortKeys}, price and quantity compare ints and the text columns compare the
+     * card's own strings, so sorting never parses or allocates per comparison.
+     */
+    private void buildRowOrder() {
+        Comparator<String> text = Comparator.nullsFirst(Comparator.naturalOrder());
+        rowOrder.put("Name", Comparator.comparing(card -> card.data().name(), text));
+        rowOrder.put("ID", sortKeys.byId());
+        rowOrder.put("Rarity", sortKeys.byRarity());
+        rowOrder.put("Type", Comparator.comparing(card -> card.data().type(), text));
+        rowOrder.put("Color", Comparator.comparing(card -> card.data().color(), text));
+        rowOrder.put("Price", Comparator.comparingInt(Card::getPrice));
+        rowOrder.put("Quantity Owned", Comparator.comparingInt(Card::getQuantityOwned));
+    }
+
+    /**
+     * Chains the clicked columns' comparators, ties broken by catalog position, and re-sorts
+     * the shown cards with it. The chain is built once per click; an empty sort order goes
+     * back to catalog order. The order is remembered so the other view and
+     * {@link #refreshRows()} can reuse it.
+     */
+    private void applySort(List<String> columns, BitSet descending) {
+        sortColumns = List.copyOf(columns);
+        sortDescending = (BitSet) descending.clone();
+        Comparator<Card> order = null;
+        for (int i = 0; i < columns.size(); i++) {
+            Comparator<Card> column = rowOrder.get(columns.get(i));
+            if (column == null) continue;
+            if (descending.get(i)) column = column.reversed();
+            order = order == null ? column : order.thenComparing(column);
+        }
+        sortedCards.setComparator(order == null ? null : order.thenComparing(CardSortKeys.byPosition()));
+    }
+
+    /**
+     * Swaps the flat table for the tree with alt arts under their base printing, or back. Both
+     * show the same filtered and sorted cards, and the one shown takes over the sort order
+     * last chosen in the other.
+     */
+    private void showVariantTree(boolean grouped) {
+        if (grouped && variantTree == null) {
+            variantTree = new VariantTreeView(sortedCards, sortKeys, allCards.size(), this::applySort);
+        }
+        List<String> columns = sortColumns;
+        BitSet descending = sortDescending;
+        if (grouped) {
+            variantTree.showSortOrder(columns, descending);
+        } else {
+            List<TableColumn<Card, ?>> order = new ArrayList<>();
+            for (int i = 0; i < columns.size(); i++) {
+                for (TableColumn<Card, ?> column : tableView.getColumns()) {
+                    if (column.getText().equals(columns.get(i))) {
+                        column.setSortType(descending.get(i) ? TableColumn.SortType.DESCENDING : TableColumn.SortType.ASCENDING);
+                        order.add(column);
+                    }
+                }
+            }
+            tableView.getSortOrder().setAll(order);
+        }
+        root.setCenter(grouped ? variantTree : tableView);
+    }
+
+    /**
+     * Redraws the visible rows after quantities change. The sorted list only re-sorts when its
+     * source changes, so a sort on price or quantity is applied again here.
+     */
+    private void refreshRows() {
+        if (sortColumns.stream().anyMatch(MUTABLE_COLUMNS::contains)) {
+            applySort(sortColumns, sortDescending); // A new comparator, so the list re-sorts
+        }
+        tableView.refresh();
+        if (variantTree != null) {
+            variantTree.refresh();
+        }
+    }
+
+    /**
+     * Opens the deck builder, checking decks against the current profile's cards.
+     */
+    private void openDeckBuilder() {
+        if (deckRules == null) {
+            deckRules = DeckRules.build(catalogData);
+            deckLibrary = DeckLibrary.open(deckRules);
+        }
+        DeckBuilderView.show(catalogData, searchIndex, deckRules, deckLibrary, deckRules.ownedCopies(collection));
+    }
+
+    /**
+     * Writes the current profile. A profile is a few kilobytes, so it is rewritten whole
+     * after every change.
+     */
+    private void saveCollection() {
+        profiles.save(currentProfile, collection.quantities());
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,541 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.CardStorage;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.DeckLibrary;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PriceHistory;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.ProfileStore;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PullLog;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BinaryCardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CompletionSimulator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Deck;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckList;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckRules;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PriceTable;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.RarityBucket;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.TradeEngine;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.TradeMatrix;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Command-line entry point that works without a display. It only uses the headless classes
+ * (the catalog loaders, SetIndex, PackGenerator, CollectionState and ProfileStore), so the
+ * JavaFX toolkit is never started and the JavaFX jars do not need to be on the classpath.
+ *
+ * <pre>
+ *   open --set OP-05 [--packs 24] [--profile name] [--seed n]
+ *   stats [--profile name] [--set OP-05]
+ *   export [--profile name] [--format csv|json] [--out file]
+ *   profiles
+ *   decks [--profile name]
+ *   trades [--profile name] [--rarity SR,SEC] [--set OP-05] [--limit 5] [--collections dir]
+ *   value [--profile name] [--set OP-05] [--prices file]
+ *   pulls [--profile name] [--set OP-05]
+ *   simulate --set OP-05 [--target all|sr+] [--collectors 100000] [--packs 10000] [--profile name] [--seed n]
+ * </pre>
+ * Run with: mvn exec:java@cli -Dexec.args="open --set OP-05 --packs 24"
+ */
+public class OnePieceCli {
+
+    private static final String USAGE = String.join("\n",
+            "Usage: OnePieceCli <command> [options]",
+            "  open --set CODE [--packs N] [--profile NAME] [--seed N]   open packs into a profile",
+            "  stats [--profile NAME] [--set CODE]                        completion per set, or by rarity for one set",
+            "  export [--profile NAME] [--format csv|json] [--out FILE]  owned cards (json is the old save format)",
+            "  profiles                                                   list saved profiles",
+            "  decks [--profile NAME]                                     saved decks: legal, and buildable from the profile",
+            "  trades [--profile NAME] [--rarity SR,SEC] [--set CODE,...] [--limit N] [--collections DIR]",
+            "                                                             trade partners among the profiles and the",
+            "                                                             JSON collection files in DIR",
+            "  value [--profile NAME] [--set CODE] [--prices FILE]      market value per set and over time; --prices",
+            "                                                             records a new price snapshot first",
+            "  pulls [--profile NAME] [--set CODE]                        SR+ hit rate and luck from the packs opened",
+            "  simulate --set CODE [--target all|sr+] [--collectors N] [--packs N] [--profile NAME] [--seed N]",
+            "                                                             packs needed to finish the set from the",
+            "                                                             profile, over N collectors (at most --packs each)");
+
+    // Most recent price snapshots listed by "value".
+    private static final int HISTORY_LINES = 20;
+
+    // Packs generated per batch when opening many, so memory does not grow with --packs.
+    private static final int BATCH = 1024;
+
+    private final List<CardData> catalog;
+    private final SetIndex setIndex;
+    private final ProfileStore profiles;
+    private final PrintStream out;
+
+    public OnePieceCli(List<CardData> catalog, PrintStream out) {
+        this.catalog = catalog;
+        this.setIndex = SetIndex.build(catalog);
+        this.profiles = ProfileStore.open(catalog);
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].equals("help") || args[0].equals("--help")) {
+            System.out.println(USAGE);
+            return;
+        }
+        try {
+            Map<String, String> options = parseOptions(args);
+            List<CardData> catalog = BinaryCardLoader.loadCards("/OnePieceCards.xml");
+            if (catalog.isEmpty()) {
+                System.err.println("No cards could be loaded.");
+                System.exit(1);
+            }
+            new OnePieceCli(catalog, System.out).run(args[0], options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void run(String command, Map<String, String> options) throws IOException {
+        profiles.migrateLegacyCollection();
+        switch (command) {
+            case "open" -> open(options);
+            case "stats" -> stats(options);
+            case "export" -> export(options);
+            case "profiles" -> profiles.profiles().forEach(out::println);
+            case "decks" -> decks(options);
+            case "trades" -> trades(options);
+            case "value" -> value(options);
+            case "pulls" -> pulls(options);
+            case "simulate" -> simulate(options);
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    /**
+     * Opens the packs, adds every card to the profile and saves it once at the end; only then
+     * are the packs added to the pull history, so it never holds packs the profile lacks.
+     */
+    private void open(Map<String, String> options) throws IOException {
+        String setCode = setCode(required(options, "set"));
+        int packs = intOption(options, "packs", 1);
+        String profile = profile(options);
+        long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : System.nanoTime();
+
+        PackGenerator generator = new PackGenerator(catalog, setIndex, seed);
+        int packSize = generator.packSize(setCode);
+        if (packSize == 0) {
+            throw new IllegalArgumentException("No cards found for set: " + setCode);
+        }
+        CollectionState collection = loadCollection(profile);
+        int ownedBefore = collection.completion(setCode).owned();
+        int[] pulledByBucket = new int[RarityBucket.values().length];
+        if (packs > Integer.MAX_VALUE / packSize) {
+            throw new IllegalArgumentException("Too many packs: " + packs);
+        }
+        int[] pulled = new int[packs * packSize]; // The pull history keeps them all in memory too
+
+        long start = System.nanoTime();
+        for (int opened = 0; opened < packs; opened += BATCH) {
+            int n = Math.min(BATCH, packs - opened);
+            generator.openPacks(setCode, n, pulled, opened * packSize);
+            for (int i = opened * packSize; i < (opened + n) * packSize; i++) {
+                int position = pulled[i];
+                collection.increment(position);
+                pulledByBucket[RarityBucket.of(catalog.get(position)).ordinal()]++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!profiles.save(profile, collection.quantities())) {
+            throw new IOException("profile '" + profile + "' was not saved; the packs were not recorded");
+        }
+        PullLog log = PullLog.open(catalog);
+        log.record(profile, setCode, packSize, pulled, System.currentTimeMillis());
+        log.close();
+
+        CollectionState.Completion after = collection.completion(setCode);
+        out.printf("Opened %d %s pack%s (%d cards) into profile '%s' in %.1f ms%n",
+                packs, setCode, packs == 1 ? "" : "s", (long) packs * packSize, profile, elapsed / 1e6);
+        for (RarityBucket bucket : RarityBucket.values()) {
+            if (pulledByBucket[bucket.ordinal()] > 0) {
+                out.printf("  %-12s %d%n", bucket, pulledByBucket[bucket.ordinal()]);
+            }
+        }
+        out.printf("  new cards    %d%n", after.owned() - ownedBefore);
+        out.printf("%s: %d/%d owned (%.1f%%)%n", setCode, after.owned(), after.total(), after.fraction() * 100);
+    }
+
+    private void stats(Map<String, String> options) {
+        String profile = profile(options);
+        CollectionState collection = loadCollection(profile);
+        if (options.containsKey("set")) {
+            CollectionState.Completion completion = collection.completion(setCode(options.get("set")));
+            out.printf("%s: %d/%d owned (%.1f%%)%n", completion.setCode(), completion.owned(), completion.total(),
+                    completion.fraction() * 100);
+            for (RarityBucket bucket : RarityBucket.values()) {
+                if (completion.total(bucket) > 0) {
+                    out.printf("  %-12s %d/%d%n", bucket, completion.owned(bucket), completion.total(bucket));
+                }
+            }
+            return;
+        }
+        int owned = 0, total = 0;
+        out.println("Profile '" + profile + "'");
+        for (String code : new TreeSet<>(setIndex.codes())) {
+            CollectionState.Completion completion = collection.completion(code);
+            owned += completion.owned();
+            total += completion.total();
+            out.printf("  %-20s %4d/%-4d %5.1f%%%n", code, completion.owned(), completion.total(),
+                    completion.fraction() * 100);
+        }
+        out.printf("  %-20s %4d/%-4d %5.1f%%%n", "Total", owned, total, total == 0 ? 0 : 100.0 * owned / total);
+    }
+
+    private void export(Map<String, String> options) throws IOException {
+        CollectionState collection = loadCollection(profile(options));
+        String format = options.getOrDefault("format", "csv");
+        StringBuilder text = new StringBuilder();
+        if (format.equals("csv")) {
+            text.append("id,name,rarity,set,alternate_art,quantity\n");
+            for (int position = 0; position < catalog.size(); position++) {
+                if (!collection.isOwned(position)) continue;
+                CardData card = catalog.get(position);
+                text.append(card.id()).append(',').append(csv(card.name())).append(',').append(card.rarity())
+                        .append(',').append(SetIndex.codeOf(card.seriesName())).append(',').append(card.alternateArt())
+                        .append(',').append(collection.quantity(position)).append('\n');
+            }
+        } else if (format.equals("json")) {
+            // Same shape as collection_progress.json: card ID -> quantity, last printing wins.
+            Map<String, Integer> progress = new LinkedHashMap<>();
+            for (int position = 0; position < catalog.size(); position++) {
+                if (collection.isOwned(position)) {
+                    progress.put(catalog.get(position).id(), collection.quantity(position));
+                }
+            }
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            text.append(gson.toJson(progress)).append('\n');
+        } else {
+            throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+
+        if (options.containsKey("out")) {
+            try (Writer writer = Files.newBufferedWriter(Paths.get(options.get("out")), StandardCharsets.UTF_8)) {
+                writer.write(text.toString());
+            }
+        } else {
+            out.print(text);
+        }
+    }
+
+    private void decks(Map<String, String> options) {
+        String profile = profile(options);
+        DeckRules rules = DeckRules.build(catalog);
+        DeckLibrary library = DeckLibrary.open(rules);
+        int[] owned = rules.ownedCopies(loadCollection(profile));
+        List<String> buildable = library.buildable(owned);
+        out.printf("%d of %d saved decks can be built from profile '%s'%n", buildable.size(), library.names().size(), profile);
+        for (String name : library.names()) {
+            DeckList list = library.get(name);
+            Deck deck = Deck.of(rules, list);
+            List<String> problems = deck.problems();
+            int missing = list.missingCopies(owned);
+            out.printf("  %-24s %-10s %s%s%n", name, list.leader() < 0 ? "-" : rules.id(list.leader()),
+                    problems.isEmpty() ? "legal" : String.join("; ", problems),
+                    missing == 0 ? ", buildable" : ", missing " + missing);
+        }
+    }
+
+    /**
+     * Best partners for one-for-one trades with the profile, the cards for the best of them,
+     * and three-way trades.
+     */
+    private void trades(Map<String, String> options) throws IOException {
+        String profile = profile(options);
+        int limit = intOption(options, "limit", 5);
+        Set<RarityBucket> rarities = EnumSet.allOf(RarityBucket.class);
+        if (options.containsKey("rarity")) {
+            rarities.clear();
+            for (String rarity : options.get("rarity").split(",")) {
+                rarities.add(rarityBucket(rarity.trim()));
+            }
+        }
+        Set<String> sets = new HashSet<>();
+        if (options.containsKey("set")) {
+            for (String code : options.get("set").split(",")) {
+                sets.add(setCode(code.trim()));
+            }
+        }
+
+        TradeMatrix.Builder builder = TradeMatrix.builder(catalog);
+        for (String name : profiles.profiles()) {
+            builder.add(name, profiles.load(name));
+        }
+        if (options.containsKey("collections")) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(options.get("collections")), "*.json")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString().replaceFirst("\\.json$", "");
+                    builder.addProgress(name, CardStorage.readProgress(file));
+                }
+            }
+        }
+        TradeMatrix matrix = builder.build();
+        int self = matrix.indexOf(profile);
+        if (self < 0) {
+            throw new IllegalArgumentException("Unknown profile: " + profile);
+        }
+        TradeEngine engine = new TradeEngine(matrix, rarities, sets);
+
+        long start = System.nanoTime();
+        List<TradeEngine.Trade> partners = engine.partners(self, limit);
+        List<TradeEngine.Cycle> cycles = engine.cycles(self, limit);
+        long elapsed = System.nanoTime() - start;
+        out.printf("Trades for '%s' among %d collections (%.1f ms)%n", profile, matrix.profileCount(), elapsed / 1e6);
+        if (partners.isEmpty()) {
+            out.println("  no one-for-one trades");
+        }
+        for (TradeEngine.Trade trade : partners) {
+            out.printf("  %-24s %d swap%s%n", matrix.name(trade.b()), trade.swaps(), trade.swaps() == 1 ? "" : "s");
+        }
+        if (!partners.isEmpty()) {
+            TradeEngine.Trade best = partners.get(0);
+            out.printf("With '%s':%n", matrix.name(best.b()));
+            for (TradeEngine.Swap swap : engine.swaps(best.a(), best.b())) {
+                CardData card = catalog.get(swap.position());
+                out.printf("  %-4s %-14s %-4s %s%n", swap.from() == self ? "give" : "get", card.id(), card.rarity(),
+                        card.name());
+            }
+        }
+        for (TradeEngine.Cycle cycle : cycles) {
+            out.printf("  three-way: give to '%s', '%s' gives to '%s', who gives back: %d swaps each%n",
+                    matrix.name(cycle.b()), matrix.name(cycle.b()), matrix.name(cycle.c()), cycle.swaps());
+        }
+    }
+
+    /**
+     * The profile's market value, per set (or for one set), and at every recorded price
+     * snapshot.
+     */
+    private void value(Map<String, String> options) throws IOException {
+        String profile = profile(options);
+        PriceTable prices;
+        if (options.containsKey("prices")) {
+            Path file = Paths.get(options.get("prices"));
+            prices = PriceTable.read(file, catalog);
+            PriceHistory.open(catalog).append(Files.getLastModifiedTime(file).toMillis(), prices);
+        } else {
+            prices = PriceHistory.loadLocalPrices(catalog);
+        }
+        if (prices.isEmpty()) {
+            out.println("No prices: put prices.csv or prices.json in the data directory, or pass --prices FILE");
+            return;
+        }
+        CollectionState collection = loadCollection(profile);
+        collection.setPrices(prices);
+        String setCode = options.containsKey("set") ? setCode(options.get("set")) : null;
+
+        out.printf("Profile '%s': %s%n", profile, PriceTable.format(collection.value()));
+        if (setCode != null) {
+            out.printf("  %-20s %12s%n", setCode, PriceTable.format(collection.value(setCode)));
+        } else {
+            for (String code : new TreeSet<>(setIndex.codes())) {
+                if (collection.value(code) > 0) {
+                    out.printf("  %-20s %12s%n", code, PriceTable.format(collection.value(code)));
+                }
+            }
+        }
+
+        PriceHistory history = PriceHistory.open(catalog);
+        BitSet members = null;
+        if (setCode != null) {
+            members = new BitSet(catalog.size());
+            for (int position : setIndex.cards(setCode)) {
+                members.set(position);
+            }
+        }
+        long start = System.nanoTime();
+        long[] values = history.valueOverTime(collection.quantities(), members);
+        long elapsed = System.nanoTime() - start;
+        out.printf("Over %d price snapshot%s (%.2f ms):%n", values.length, values.length == 1 ? "" : "s", elapsed / 1e6);
+        for (int s = Math.max(0, values.length - HISTORY_LINES); s < values.length; s++) {
+            out.printf("  %s %12s%n", Instant.ofEpochMilli(history.time(s)).atZone(ZoneId.systemDefault()).toLocalDate(),
+                    PriceTable.format(values[s]));
+        }
+    }
+
+    /**
+     * What the recorded packs turned up: SR+ hit rate per set against the odds, cards per
+     * rarity against the expected count, and packs since the last secret rare.
+     */
+    private void pulls(Map<String, String> options) {
+        String profile = options.containsKey("profile") ? profile(options) : null;
+        String setCode = options.containsKey("set") ? setCode(options.get("set")) : null;
+        PullLog log = PullLog.open(catalog);
+        PackGenerator odds = new PackGenerator(catalog, setIndex);
+
+        long start = System.nanoTime();
+        List<PullLog.HitRate> rates = log.hitRates(profile, CompletionSimulator.SR_PLUS);
+        long[] pulled = log.pulledByBucket(profile, setCode);
+        int packs = log.packs(profile, setCode);
+        int sinceSecret = log.packsSinceLast(RarityBucket.SECRET_RARE, profile, setCode);
+        long elapsed = System.nanoTime() - start;
+
+        out.printf("%d packs recorded%s%s (queries %.2f ms over %d packs)%n", packs,
+                profile == null ? "" : " for '" + profile + "'", setCode == null ? "" : " from " + setCode,
+                elapsed / 1e6, log.packCount());
+        if (packs == 0) {
+            return;
+        }
+        out.println("SR+ hit rate per set:");
+        double[] expected = new double[RarityBucket.values().length];
+        for (PullLog.HitRate rate : rates) {
+            if (setCode != null && !rate.setCode().equals(setCode)) continue;
+            boolean known = setIndex.codes().contains(rate.setCode()) && odds.packSize(rate.setCode()) > 0;
+            out.printf("  %-20s %6d packs  %5.1f%% with a hit (expected %s)  %.2f hits/pack%n", rate.setCode(),
+                    rate.packs(), rate.packRate() * 100,
+                    known ? String.format("%.1f%%", odds.hitChance(rate.setCode(), CompletionSimulator.SR_PLUS) * 100) : "-",
+                    (double) rate.hits() / rate.packs());
+            if (known) {
+                double[] perPack = odds.expectedPerPack(rate.setCode());
+                for (int b = 0; b < expected.length; b++) {
+                    expected[b] += perPack[b] * rate.packs();
+                }
+            }
+        }
+        out.println("Luck (pulled / expected):");
+        for (RarityBucket bucket : RarityBucket.values()) {
+            int b = bucket.ordinal();
+            if (pulled[b] == 0 && expected[b] == 0) continue;
+            out.printf("  %-12s %8d / %-10.1f %s%n", bucket, pulled[b], expected[b],
+                    expected[b] == 0 ? "" : String.format("%.2fx", pulled[b] / expected[b]));
+        }
+        out.println(sinceSecret < 0 ? "No secret rare yet" : "Packs since the last secret rare: " + sinceSecret);
+    }
+
+    /**
+     * Monte-Carlo estimate of the packs needed to finish the set, or its SR+ cards, starting
+     * from the profile's collection.
+     */
+    private void simulate(Map<String, String> options) {
+        String setCode = setCode(required(options, "set"));
+        String targetName = options.getOrDefault("target", "all");
+        Predicate<CardData> target = switch (targetName.toLowerCase()) {
+            case "all" -> CompletionSimulator.allCards();
+            case "sr+" -> CompletionSimulator.buckets(CompletionSimulator.SR_PLUS);
+            default -> throw new IllegalArgumentException("Unknown target: " + targetName);
+        };
+        int collectors = intOption(options, "collectors", 100_000);
+        int maxPacks = intOption(options, "packs", 10_000);
+        long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : System.nanoTime();
+        int[] owned = profiles.load(profile(options));
+        CompletionSimulator simulator = new CompletionSimulator(catalog, setIndex, new PackGenerator(catalog, setIndex, seed));
+
+        long start = System.nanoTime();
+        CompletionSimulator.Result result = simulator.simulate(setCode, target, owned, collectors, maxPacks, seed);
+        out.println(result);
+        out.printf("  %.2f s on %d cores%n", (System.nanoTime() - start) / 1e9, Runtime.getRuntime().availableProcessors());
+    }
+
+    // A bucket by printed rarity (C, UC, R, SR, SEC, L), "ALT", or enum name.
+    private static RarityBucket rarityBucket(String name) {
+        for (RarityBucket bucket : RarityBucket.values()) {
+            if (bucket.name().equalsIgnoreCase(name)) {
+                return bucket;
+            }
+        }
+        return switch (name.toUpperCase()) {
+            case "C" -> RarityBucket.COMMON;
+            case "UC" -> RarityBucket.UNCOMMON;
+            case "R" -> RarityBucket.RARE;
+            case "SR" -> RarityBucket.SUPER_RARE;
+            case "SEC" -> RarityBucket.SECRET_RARE;
+            case "L" -> RarityBucket.LEADER;
+            case "ALT", "SP" -> RarityBucket.ALT_ART;
+            default -> throw new IllegalArgumentException("Unknown rarity: " + name);
+        };
+    }
+
+    private CollectionState loadCollection(String profile) {
+        CollectionState collection = new CollectionState(catalog, setIndex);
+        collection.load(profiles.load(profile));
+        return collection;
+    }
+
+    private String setCode(String code) {
+        for (String known : setIndex.codes()) {
+            if (known.equalsIgnoreCase(code)) {
+                return known;
+            }
+        }
+        throw new IllegalArgumentException("Unknown set: " + code);
+    }
+
+    private static String profile(Map<String, String> options) {
+        String profile = options.getOrDefault("profile", ProfileStore.DEFAULT_PROFILE);
+        if (!ProfileStore.isValidName(profile)) {
+            throw new IllegalArgumentException("Invalid profile name: " + profile);
+        }
+        return profile;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        try {
+            int parsed = value == null ? defaultValue : Integer.parseInt(value);
+            if (parsed < 1) throw new NumberFormatException();
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a positive number: " + value);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // "--key value" pairs after the command.
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,209 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persists the collection as a JSON snapshot plus an append-only change log.
+ *
+ * Every change (a pack added, a set reset) is appended to the log as one line of
+ * "ID=quantity" assignments and forced to disk, so a crash loses at most the change being
+ * written. Loading reads the snapshot and replays the log in order; a torn last line, one
+ * without its newline, is ignored. Saving writes a new snapshot to a temporary file, moves it
+ * over the old one atomically and only then empties the log. Because log lines hold absolute
+ * quantities, replaying a log that was already folded into the snapshot changes nothing. Once
+ * the log holds 500 changes, the next append folds it into a new snapshot itself, so the log
+ * and the replay on load stay bounded.
+ *
+ * The app keeps collections in {@link ProfileStore} now. The snapshot and log are only read
+ * to migrate an old collection; the CLI's trades command reads other players' JSON files
+ * through {@link #readProgress}.
+ */
+public class CardStorage {
+
+    // Files live in the working directory unless -Donepiece.dataDir points elsewhere.
+    private static final Path DATA_DIR = Paths.get(System.getProperty("onepiece.dataDir", ""));
+    private static final String SAVE_FILE = "collection_progress.json";
+    private static final String LOG_FILE = "collection_progress.log";
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    // The log is folded into a new snapshot once it holds this many changes.
+    private static final int COMPACT_AFTER_RECORDS = 500;
+    private static int recordsSinceSnapshot = 0;
+
+    /**
+     * Saves the quantity of each owned card to the JSON snapshot and clears the change log.
+     * @param progress Card ID -> quantity owned. Entries with a quantity of 0 are skipped.
+     */
+    public static synchronized void saveProgress(Map<String, Integer> progress) {
+        try {
+            writeSnapshot(progress);
+            System.err.println("Progress saved successfully to " + SAVE_FILE);
+        } catch (IOException e) {
+            System.err.println("Error saving progress: " + e.getMessage());
+        }
+    }
+
+    private static void writeSnapshot(Map<String, Integer> progress) throws IOException {
+        Map<String, Integer> owned = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : progress.entrySet()) {
+            if (entry.getValue() > 0) {
+                owned.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Path target = DATA_DIR.resolve(SAVE_FILE).toAbsolutePath();
+        Path temp = target.resolveSibling(SAVE_FILE + ".tmp");
+        Files.createDirectories(target.getParent());
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            gson.toJson(owned, writer);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The snapshot now contains everything in the log.
+        Files.deleteIfExists(DATA_DIR.resolve(LOG_FILE));
+        recordsSinceSnapshot = 0;
+    }
+
+    /**
+     * Appends one change to the log, e.g. the cards of one opened pack, and compacts the log
+     * into a new snapshot once it is long enough.
+     * @param changes Card ID -> new quantity owned (0 for a reset).
+     * @return true if this append compacted the log.
+     */
+    public static synchronized boolean appendProgress(Map<String, Integer> changes) {
+        if (changes.isEmpty()) {
+            return false;
+        }
+        StringBuilder line = new StringBuilder(changes.size() * 12);
+        for (Map.Entry<String, Integer> entry : changes.entrySet()) {
+            if (line.length() > 0) line.append(';');
+            line.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        line.append('\n');
+
+        try (FileChannel channel = FileChannel.open(DATA_DIR.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(line.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Error logging progress: " + e.getMessage());
+            return false;
+        }
+        if (++recordsSinceSnapshot < COMPACT_AFTER_RECORDS) {
+            return false;
+        }
+        // Snapshot plus log is the current state; if the snapshot cannot be read, keep the log.
+        try {
+            Map<String, Integer> progress = readSnapshot();
+            replayLog(progress);
+            writeSnapshot(progress);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error compacting progress log: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Loads the card quantities from the JSON snapshot and replays the change log over them.
+     * @return Card ID -> quantity owned; empty if there is no save file yet.
+     */
+    public static synchronized Map<String, Integer> loadProgress() {
+        Map<String, Integer> progress;
+        try {
+            progress = readSnapshot();
+        } catch (IOException e) {
+            System.err.println("Error loading progress: " + e.getMessage());
+            progress = new HashMap<>();
+        }
+        recordsSinceSnapshot = replayLog(progress);
+        return progress;
+    }
+
+    /**
+     * The snapshot without the log; empty if there is no save file yet.
+     */
+    private static Map<String, Integer> readSnapshot() throws IOException {
+        try {
+            return readProgress(DATA_DIR.resolve(SAVE_FILE));
+        } catch (NoSuchFileException e) {
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Reads a JSON snapshot in the save-file format from any path, e.g. another player's
+     * collection. No change log is replayed.
+     * @return Card ID -> quantity owned.
+     */
+    public static Map<String, Integer> readProgress(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Type type = new TypeToken<Map<String, Integer>>() {}.getType();
+            Map<String, Integer> progress = gson.fromJson(reader, type);
+            return progress != null ? progress : new HashMap<>();
+        } catch (JsonParseException e) {
+            throw new IOException("not a collection file: " + e.getMessage(), e);
+        }
+    }
+
+    private static int replayLog(Map<String, Integer> progress) {
+        Path log = DATA_DIR.resolve(LOG_FILE);
+        if (!Files.isRegularFile(log)) {
+            return 0;
+        }
+        String text;
+        try {
+            text = Files.readString(log, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error reading progress log: " + e.getMessage());
+            return 0;
+        }
+
+        int records = 0;
+        int lineStart = 0;
+        int lineEnd;
+        while ((lineEnd = text.indexOf('\n', lineStart)) >= 0) {
+            int pos = lineStart;
+            while (pos < lineEnd) {
+                int end = text.indexOf(';', pos);
+                if (end < 0 || end > lineEnd) end = lineEnd;
+                int eq = text.indexOf('=', pos);
+                if (eq > pos && eq < end) {
+                    try {
+                        progress.put(text.substring(pos, eq), Integer.parseInt(text, eq + 1, end, 10));
+                    } catch (NumberFormatException ignored) {
+                        // Skip a damaged entry; the rest of the line is still usable.
+                    }
+                }
+                pos = end + 1;
+            }
+            records++;
+            lineStart = lineEnd + 1;
+        }
+        return records;
+    }
+}
@@ -0,0 +1,168 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.data;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckList;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckRules;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Saved deck lists, one text file per deck under decks/ in the data directory, in the usual
+ * deck-list format of one "4xOP01-016" line per card with the leader first. Lists refer to
+ * card IDs rather than catalog positions, so they stay valid when the catalog changes.
+ *
+ * Every list is parsed once, when the library is opened, and kept in memory as a
+ * {@link DeckList}; {@link #buildable} then only does array lookups.
+ */
+public class DeckLibrary {
+
+    private static final String EXTENSION = ".deck";
+    private static final Pattern LINE = Pattern.compile("\\s*(\\d+)\\s*x\\s*(\\S+)\\s*");
+
+    private final Path dir;
+    private final DeckRules rules;
+    private final Map<String, DeckList> decks = new TreeMap<>();
+
+    public DeckLibrary(Path dir, DeckRules rules) {
+        this.dir = dir;
+        this.rules = rules;
+        loadAll();
+    }
+
+    /**
+     * The library under decks/ in the data directory (-Donepiece.dataDir).
+     */
+    public static DeckLibrary open(DeckRules rules) {
+        return new DeckLibrary(Paths.get(System.getProperty("onepiece.dataDir", ""), "decks"), rules);
+    }
+
+    /**
+     * Deck names, sorted.
+     */
+    public List<String> names() {
+        return new ArrayList<>(decks.keySet());
+    }
+
+    /**
+     * The saved list, or null if there is none by that name.
+     */
+    public DeckList get(String name) {
+        return decks.get(name);
+    }
+
+    public void save(DeckList deck) {
+        Path target = fileOf(deck.name()).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            Files.writeString(temp, format(deck, rules), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            decks.put(deck.name(), deck);
+        } catch (IOException e) {
+            System.err.println("Error saving deck '" + deck.name() + "': " + e.getMessage());
+        }
+    }
+
+    public void delete(String name) {
+        try {
+            Files.deleteIfExists(fileOf(name));
+            decks.remove(name);
+        } catch (IOException e) {
+            System.err.println("Error deleting deck '" + name + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Names of the saved decks the collection can build, in name order.
+     * @param owned Owned copies by ordinal, from {@link DeckRules#ownedCopies}.
+     */
+    public List<String> buildable(int[] owned) {
+        List<String> names = new ArrayList<>();
+        for (DeckList deck : decks.values()) {
+            if (deck.isBuildable(owned)) {
+                names.add(deck.name());
+            }
+        }
+        return names;
+    }
+
+    public static boolean isValidName(String name) {
+        return ProfileStore.isValidName(name);
+    }
+
+    /**
+     * The deck-list text for a deck: "1xLEADER-ID", then one "NxID" line per card.
+     */
+    public static String format(DeckList deck, DeckRules rules) {
+        StringBuilder text = new StringBuilder();
+        if (deck.leader() >= 0) {
+            text.append("1x").append(rules.id(deck.leader())).append('\n');
+        }
+        for (int i = 0; i < deck.ordinals().length; i++) {
+            text.append(deck.counts()[i]).append('x').append(rules.id(deck.ordinals()[i])).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads deck-list text. The first line naming a leader card is taken as the leader; lines
+     * that are not "NxID", and IDs the catalog does not know, are skipped with a warning.
+     */
+    public static DeckList parse(String name, String text, DeckRules rules) {
+        int leader = -1;
+        int[] copies = new int[rules.size()];
+        for (String line : text.split("\\R")) {
+            if (line.isBlank()) continue;
+            Matcher matcher = LINE.matcher(line);
+            if (!matcher.matches()) {
+                System.err.println("Deck '" + name + "': skipping line '" + line.trim() + "'");
+                continue;
+            }
+            int ordinal = rules.ordinal(matcher.group(2));
+            if (ordinal < 0) {
+                System.err.println("Deck '" + name + "': unknown card " + matcher.group(2));
+                continue;
+            }
+            int count = Integer.parseInt(matcher.group(1));
+            if (leader < 0 && rules.isLeader(ordinal) && count == 1) {
+                leader = ordinal;
+                continue;
+            }
+            copies[ordinal] += count;
+        }
+        return DeckList.of(name, leader, copies);
+    }
+
+    private void loadAll() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+                decks.put(name, parse(name, Files.readString(file, StandardCharsets.UTF_8), rules));
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading decks: " + e.getMessage());
+        }
+    }
+
+    private Path fileOf(String name) {
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("Invalid deck name: " + name);
+        }
+        return dir.resolve(name + EXTENSION);
+    }
+}
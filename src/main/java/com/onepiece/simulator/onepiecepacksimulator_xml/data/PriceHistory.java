@@ -0,0 +1,283 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.data;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CatalogPatch;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PriceTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Every price snapshot seen, in one append-only file (price-history.bin in the data
+ * directory), for the value of a collection over time.
+ *
+ * Prices are stored by printing key ({@link CatalogPatch#keys}) so the history survives
+ * catalog changes, and each snapshot only stores the prices that changed since the one
+ * before:
+ * <pre>
+ *   int   magic "OPPH"
+ *   byte  format version
+ *   then per snapshot:
+ *     int   body length
+ *     body: long epoch millis
+ *           varint number of new keys, then each as varint length + UTF-8
+ *           varint number of changes, then per change, in key order:
+ *             varint key index - previous key index, zigzag varint price change in cents
+ *     int   CRC32 of the body
+ * </pre>
+ * A snapshot where only a handful of prices moved takes a few dozen bytes. A snapshot cut off
+ * by a crash fails its checksum and is dropped when the file is next opened.
+ *
+ * In memory every snapshot is expanded to one price per key, so a query over hundreds of
+ * snapshots is one multiply-add per owned card per snapshot.
+ */
+public class PriceHistory {
+
+    private static final int MAGIC = 0x4F505048; // "OPPH"
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER = 5;
+
+    private final Path file;
+    private final int[] keyOf;                // catalog position -> key index
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> keyIndex = new HashMap<>();
+    private final List<Long> times = new ArrayList<>();
+    private final List<int[]> snapshots = new ArrayList<>(); // per snapshot, cents per key index
+
+    public PriceHistory(Path file, List<CardData> catalog) {
+        this.file = file;
+        try {
+            read();
+        } catch (IOException e) {
+            System.err.println("Error reading price history: " + e.getMessage());
+        }
+        String[] catalogKeys = CatalogPatch.keys(catalog);
+        keyOf = new int[catalogKeys.length];
+        for (int position = 0; position < catalogKeys.length; position++) {
+            keyOf[position] = keyIndex(catalogKeys[position]);
+        }
+    }
+
+    /**
+     * The history in the data directory (-Donepiece.dataDir).
+     */
+    public static PriceHistory open(List<CardData> catalog) {
+        return new PriceHistory(Paths.get(System.getProperty("onepiece.dataDir", ""), "price-history.bin"), catalog);
+    }
+
+    /**
+     * The local price snapshot ({@link PriceTable#load}), recorded in the history under the
+     * file's modification time if its prices are new.
+     */
+    public static PriceTable loadLocalPrices(List<CardData> catalog) {
+        PriceTable table = PriceTable.load(catalog);
+        if (!table.isEmpty()) {
+            try {
+                open(catalog).append(Files.getLastModifiedTime(PriceTable.file()).toMillis(), table);
+            } catch (IOException e) {
+                System.err.println("Error recording price snapshot: " + e.getMessage());
+            }
+        }
+        return table;
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    /** When the snapshot was taken, in epoch millis. */
+    public long time(int snapshot) {
+        return times.get(snapshot);
+    }
+
+    /**
+     * Adds the prices as a new snapshot, unless they are the same as the latest one.
+     * @return Whether a snapshot was added.
+     */
+    public boolean append(long epochMillis, PriceTable table) {
+        int[] latest = snapshots.isEmpty() ? new int[0] : snapshots.get(snapshots.size() - 1);
+        int[] next = Arrays.copyOf(latest, keys.size());
+        for (int position = 0; position < keyOf.length; position++) {
+            next[keyOf[position]] = table.cents(position);
+        }
+        int newKeys = keys.size() - latest.length;
+        int changes = 0;
+        for (int k = 0; k < next.length; k++) {
+            if (next[k] != (k < latest.length ? latest[k] : 0)) changes++;
+        }
+        if (!snapshots.isEmpty() && changes == 0) {
+            return false;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(8 + 5 + 5 + changes * 10 + newKeys * 5
+                + keys.subList(latest.length, keys.size()).stream().mapToInt(key -> key.length() * 3).sum());
+        body.putLong(epochMillis);
+        putVarint(body, newKeys);
+        for (String key : keys.subList(latest.length, keys.size())) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            putVarint(body, bytes.length);
+            body.put(bytes);
+        }
+        putVarint(body, changes);
+        int previous = 0;
+        for (int k = 0; k < next.length; k++) {
+            int delta = next[k] - (k < latest.length ? latest[k] : 0);
+            if (delta != 0) {
+                putVarint(body, k - previous);
+                putVarint(body, (delta << 1) ^ (delta >> 31));
+                previous = k;
+            }
+        }
+        body.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 0, body.limit());
+        ByteBuffer record = ByteBuffer.allocate(4 + body.limit() + 4);
+        record.putInt(body.limit()).put(body).putInt((int) crc.getValue()).flip();
+
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                if (channel.size() == 0) {
+                    channel.write(ByteBuffer.allocate(HEADER).putInt(MAGIC).put(FORMAT_VERSION).flip());
+                }
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving price history: " + e.getMessage());
+            return false;
+        }
+        times.add(epochMillis);
+        snapshots.add(next);
+        return true;
+    }
+
+    /**
+     * The collection's value at every snapshot, oldest first, in cents.
+     * @param quantities Quantity per catalog position.
+     */
+    public long[] valueOverTime(int[] quantities) {
+        return valueOverTime(quantities, null);
+    }
+
+    /**
+     * As {@link #valueOverTime(int[])}, counting only the given positions (e.g. one set's).
+     */
+    public long[] valueOverTime(int[] quantities, BitSet positions) {
+        // Owned cards as two short parallel arrays, so the loop below is a plain dot product.
+        int owned = 0;
+        int[] ownedKeys = new int[quantities.length];
+        int[] ownedCopies = new int[quantities.length];
+        for (int position = 0; position < Math.min(quantities.length, keyOf.length); position++) {
+            if (quantities[position] > 0 && (positions == null || positions.get(position))) {
+                ownedKeys[owned] = keyOf[position];
+                ownedCopies[owned++] = quantities[position];
+            }
+        }
+        long[] values = new long[snapshots.size()];
+        for (int s = 0; s < values.length; s++) {
+            int[] prices = snapshots.get(s);
+            long total = 0;
+            for (int i = 0; i < owned; i++) {
+                int k = ownedKeys[i];
+                if (k < prices.length) {
+                    total += (long) ownedCopies[i] * prices[k];
+                }
+            }
+            values[s] = total;
+        }
+        return values;
+    }
+
+    private int keyIndex(String key) {
+        Integer index = keyIndex.get(key);
+        if (index == null) {
+            index = keys.size();
+            keys.add(key);
+            keyIndex.put(key, index);
+        }
+        return index;
+    }
+
+    private void read() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < HEADER || in.getInt() != MAGIC || in.get() != FORMAT_VERSION) {
+            throw new IOException(file + " is not a price history file");
+        }
+        int[] latest = new int[0];
+        int good = in.position();
+        while (in.remaining() >= 4) {
+            int length = in.getInt();
+            if (length < 0 || in.remaining() < length + 4) break;
+            CRC32 crc = new CRC32();
+            crc.update(in.array(), in.position(), length);
+            if ((int) crc.getValue() != in.getInt(in.position() + length)) break;
+
+            long time = in.getLong();
+            int newKeys = getVarint(in);
+            for (int i = 0; i < newKeys; i++) {
+                byte[] bytes = new byte[getVarint(in)];
+                in.get(bytes);
+                keyIndex(new String(bytes, StandardCharsets.UTF_8));
+            }
+            int[] next = Arrays.copyOf(latest, keys.size());
+            int changes = getVarint(in);
+            int k = 0;
+            for (int i = 0; i < changes; i++) {
+                k += getVarint(in);
+                int zigzag = getVarint(in);
+                next[k] += (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            in.getInt(); // CRC, checked above
+            times.add(time);
+            snapshots.add(next);
+            latest = next;
+            good = in.position();
+        }
+        if (good < in.limit()) {
+            System.err.println("Price history: dropping " + (in.limit() - good) + " unreadable bytes at the end");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(good);
+            }
+        }
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("varint too long");
+    }
+}
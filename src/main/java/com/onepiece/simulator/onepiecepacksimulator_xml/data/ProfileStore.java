@@ -0,0 +1,403 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.data;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CatalogPatch;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Stores any number of named collections ("profiles"), one small binary file each in the
+ * profiles directory.
+ *
+ * A profile file is:
+ * <pre>
+ *   int   magic "OPPF"
+ *   byte  format version
+ *   long  catalog version ({@link CatalogPatch#catalogVersion}) the positions refer to
+ *   int   catalog size
+ *   varint number of owned cards, then per owned card, in catalog order:
+ *     varint position - previous position, varint quantity
+ *   int   CRC32 of everything above
+ * </pre>
+ * Saving replaces the file atomically, and the first save against a catalog version also
+ * writes that catalog's printing keys ({@link CatalogPatch#keys}) to catalogs/VERSION.keys.
+ * A profile saved against a different catalog cannot be read by position, so it is remapped
+ * through those keys, following any renames in the local catalog patches; copies of cards
+ * the current catalog no longer has are reported and the original file is kept as
+ * "name.profile.stale". Without the keys the profile starts empty and the file is moved
+ * aside to the same name, so nothing is lost. A file that cannot be read or decoded at all
+ * is moved aside the same way before the profile starts empty. An existing .stale file is
+ * never replaced; later ones are numbered "name.profile.stale.1", ".2" and so on. If a file
+ * cannot be moved aside, the profile refuses to save until it loads cleanly again or is
+ * deleted, so the original is never overwritten with an empty collection.
+ */
+public class ProfileStore {
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    private static final int MAGIC = 0x4F505046; // "OPPF"
+    private static final byte FORMAT_VERSION = 1;
+    private static final String EXTENSION = ".profile";
+    private static final String LEGACY_JSON = "collection_progress.json";
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final LatencyHistogram LOAD = Metrics.histogram("profile.load");
+    private static final LatencyHistogram SAVE = Metrics.histogram("profile.save");
+
+    private final Path dir;
+    private final List<CardData> catalog;
+    private final long catalogVersion;
+    private final AtomicBoolean keysWritten = new AtomicBoolean(); // Set by the one thread that writes them
+    private final Set<String> unsaveable = ConcurrentHashMap.newKeySet(); // Originals that could not be moved aside
+
+    public ProfileStore(Path dir, List<CardData> catalog) {
+        this.dir = dir;
+        this.catalog = catalog;
+        this.catalogVersion = CatalogPatch.catalogVersion(catalog);
+    }
+
+    /**
+     * The store under profiles/ in the data directory (-Donepiece.dataDir, default the working
+     * directory), next to the legacy JSON save file.
+     */
+    public static ProfileStore open(List<CardData> catalog) {
+        return new ProfileStore(Paths.get(System.getProperty("onepiece.dataDir", ""), "profiles"), catalog);
+    }
+
+    public static boolean isValidName(String profile) {
+        return profile != null && VALID_NAME.matcher(profile).matches();
+    }
+
+    /**
+     * Names of every saved profile, sorted.
+     */
+    public List<String> profiles() {
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return names;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                names.add(name.substring(0, name.length() - EXTENSION.length()));
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing profiles: " + e.getMessage());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    public boolean exists(String profile) {
+        return Files.isRegularFile(fileOf(profile));
+    }
+
+    /**
+     * Quantity owned per catalog position; all zeros for a new profile.
+     */
+    public int[] load(String profile) {
+        int[] quantities = new int[catalog.size()];
+        Path file = fileOf(profile);
+        if (!Files.isRegularFile(file)) {
+            return quantities;
+        }
+        long start = Metrics.now();
+        try {
+            Decoded decoded = decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+            if (decoded.catalogVersion() == catalogVersion && decoded.quantities().length == quantities.length) {
+                quantities = decoded.quantities();
+                unsaveable.remove(profile);
+                writeKeysOnce(); // Profiles saved before keys were kept can be remapped later too
+            } else if (!remap(profile, file, decoded, quantities)) {
+                Path stale = moveAside(profile, file);
+                System.err.println("Profile '" + profile + "' was saved for another catalog version; "
+                        + (stale == null ? "it could not be moved aside" : "moved it aside to " + stale.getFileName())
+                        + " and starting it empty.");
+            }
+            LOAD.recordSince(start);
+        } catch (IOException | RuntimeException e) {
+            Arrays.fill(quantities, 0);
+            Path stale = moveAside(profile, file);
+            System.err.println("Error loading profile '" + profile + "': " + e.getMessage() + "; "
+                    + (stale == null ? "it could not be moved aside and will not be saved over"
+                            : "moved it aside to " + stale.getFileName())
+                    + " and starting it empty.");
+        }
+        return quantities;
+    }
+
+    /**
+     * Replaces the profile with the given quantities (indexed by catalog position).
+     * @return false if it was not saved; the reason has been reported.
+     */
+    public boolean save(String profile, int[] quantities) {
+        Path target = fileOf(profile).toAbsolutePath();
+        if (unsaveable.contains(profile) && Files.exists(target)) {
+            System.err.println("Not saving profile '" + profile + "': its unreadable file " + target.getFileName()
+                    + " could not be moved aside. Move or delete it first.");
+            return false;
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long start = Metrics.now();
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = encode(quantities);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            SAVE.recordSince(start);
+        } catch (IOException e) {
+            System.err.println("Error saving profile '" + profile + "': " + e.getMessage());
+            return false;
+        }
+        writeKeysOnce();
+        return true;
+    }
+
+    /**
+     * Moves the quantities of a profile saved against another catalog onto this one by
+     * printing key, then saves the result.
+     * @return false if the keys of the old catalog are not known.
+     */
+    private boolean remap(String profile, Path file, Decoded decoded, int[] quantities) throws IOException {
+        Path keysFile = keysFile(decoded.catalogVersion());
+        if (!Files.isRegularFile(keysFile)) {
+            return false;
+        }
+        List<String> oldKeys = Files.readAllLines(keysFile, StandardCharsets.UTF_8);
+        if (oldKeys.size() != decoded.quantities().length) {
+            return false;
+        }
+        Map<String, Integer> index = CatalogPatch.index(CatalogPatch.keys(catalog));
+        Map<String, String> renames = CatalogPatch.renames(CatalogPatch.directory());
+        int moved = 0, lostCards = 0, lostCopies = 0;
+        for (int old = 0; old < oldKeys.size(); old++) {
+            int quantity = decoded.quantities()[old];
+            if (quantity == 0) continue;
+            String key = oldKeys.get(old);
+            for (int hops = 0; hops < 16 && !index.containsKey(key) && renames.containsKey(key); hops++) {
+                key = renames.get(key);
+            }
+            Integer position = index.get(key);
+            if (position == null) {
+                lostCards++;
+                lostCopies += quantity;
+                continue;
+            }
+            quantities[position] += quantity;
+            moved++;
+        }
+        if (lostCards > 0) {
+            Path stale = keepStale(file, false);
+            System.err.println("Profile '" + profile + "': " + lostCards + " cards (" + lostCopies + " copies) are not in "
+                    + "the current catalog; the original is kept as " + stale.getFileName());
+        }
+        System.err.println("Remapped profile '" + profile + "' onto catalog " + Long.toHexString(catalogVersion)
+                + ": " + moved + " cards");
+        save(profile, quantities);
+        return true;
+    }
+
+    /**
+     * Writes this catalog's keys unless they are already on disk. Profiles are loaded and saved
+     * from several threads (the server's stripes, TradeMatrix.ofProfiles), so only the thread
+     * that flips the flag writes, through a temporary file of its own; a failed write clears
+     * the flag for the next save to retry.
+     */
+    private void writeKeysOnce() {
+        if (!keysWritten.compareAndSet(false, true)) {
+            return;
+        }
+        Path target = keysFile(catalogVersion);
+        Path temp = null;
+        try {
+            if (!Files.isRegularFile(target)) {
+                Files.createDirectories(target.getParent());
+                temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+                Files.write(temp, List.of(CatalogPatch.keys(catalog)), StandardCharsets.UTF_8);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            keysWritten.set(false);
+            System.err.println("Error saving catalog keys: " + e.getMessage());
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Left behind; the next write uses another name.
+            }
+        }
+    }
+
+    private Path keysFile(long version) {
+        return dir.resolve("catalogs").resolve(Long.toHexString(version) + ".keys");
+    }
+
+    public void delete(String profile) {
+        try {
+            Files.deleteIfExists(fileOf(profile));
+            unsaveable.remove(profile);
+        } catch (IOException e) {
+            System.err.println("Error deleting profile '" + profile + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports a collection in the old JSON format (card ID -> quantity) into a profile.
+     * Shared IDs go to the last printing, as {@link CatalogPatch#quantitiesByPosition} does.
+     */
+    public void importJson(String profile, Map<String, Integer> progress) {
+        save(profile, CatalogPatch.quantitiesByPosition(catalog, progress));
+    }
+
+    /**
+     * One-time migration: when there are no profiles yet but the legacy
+     * collection_progress.json (and its change log) exist, imports them as the default
+     * profile. The JSON files are left where they are.
+     */
+    public void migrateLegacyCollection() {
+        if (!profiles().isEmpty()) {
+            return;
+        }
+        Path legacy = Paths.get(System.getProperty("onepiece.dataDir", ""), LEGACY_JSON);
+        if (!Files.isRegularFile(legacy)) {
+            return;
+        }
+        importJson(DEFAULT_PROFILE, CardStorage.loadProgress());
+        System.err.println("Imported " + LEGACY_JSON + " into profile '" + DEFAULT_PROFILE + "'.");
+    }
+
+    private ByteBuffer encode(int[] quantities) {
+        int owned = 0;
+        for (int quantity : quantities) {
+            if (quantity > 0) owned++;
+        }
+        // Worst case 5 bytes per varint.
+        ByteBuffer out = ByteBuffer.allocate(4 + 1 + 8 + 4 + 5 + owned * 10 + 4);
+        out.putInt(MAGIC).put(FORMAT_VERSION).putLong(catalogVersion).putInt(quantities.length);
+        putVarint(out, owned);
+        int previous = 0;
+        for (int position = 0; position < quantities.length; position++) {
+            if (quantities[position] > 0) {
+                putVarint(out, position - previous);
+                putVarint(out, quantities[position]);
+                previous = position;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        return out.flip();
+    }
+
+    private record Decoded(long catalogVersion, int[] quantities) {
+    }
+
+    private static Decoded decode(ByteBuffer in) throws IOException {
+        if (in.remaining() < 4 + 1 + 8 + 4 + 1 + 4) {
+            throw new IOException("file is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(in.array(), 0, in.limit() - 4);
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) {
+            throw new IOException("checksum mismatch");
+        }
+        if (in.getInt() != MAGIC || in.get() != FORMAT_VERSION) {
+            throw new IOException("not a profile file");
+        }
+        long version = in.getLong();
+        int size = in.getInt();
+        if (size < 0 || size > 1 << 24) {
+            throw new IOException("bad catalog size " + size);
+        }
+        int[] quantities = new int[size];
+        int owned = getVarint(in);
+        int position = 0;
+        for (int i = 0; i < owned; i++) {
+            position += getVarint(in);
+            quantities[position] = getVarint(in);
+        }
+        return new Decoded(version, quantities);
+    }
+
+    private Path fileOf(String profile) {
+        if (!isValidName(profile)) {
+            throw new IllegalArgumentException("Invalid profile name: " + profile);
+        }
+        return dir.resolve(profile + EXTENSION);
+    }
+
+    // Null if the file could not be moved; the profile then refuses to save over it.
+    private Path moveAside(String profile, Path file) {
+        try {
+            Path stale = keepStale(file, true);
+            unsaveable.remove(profile);
+            return stale;
+        } catch (IOException e) {
+            unsaveable.add(profile);
+            System.err.println("Error moving stale profile aside: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copies or moves the file to the first free name of "file.stale", "file.stale.1", ...
+     * so an earlier preserved original is never overwritten.
+     */
+    private static Path keepStale(Path file, boolean move) throws IOException {
+        for (int n = 0; ; n++) {
+            Path stale = file.resolveSibling(file.getFileName() + (n == 0 ? ".stale" : ".stale." + n));
+            if (Files.exists(stale)) continue;
+            try {
+                return move ? Files.move(file, stale) : Files.copy(file, stale);
+            } catch (FileAlreadyExistsException e) {
+                // Taken since the check; try the next name.
+            }
+        }
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("varint too long");
+    }
+
+}
@@ -0,0 +1,611 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.data;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CatalogPatch;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.RarityBucket;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Every pack opened, as an append-only log under pulls/ in the data directory.
+ *
+ * The log is stored by column, one file per field, so a query only reads the columns it
+ * needs and scans them as primitive arrays:
+ * <pre>
+ *   packs.time     long   epoch millis, per pack
+ *   packs.set      short  index into sets.txt
+ *   packs.profile  short  index into profiles.txt
+ *   packs.end      int    cards recorded up to and including this pack
+ *   cards.key      int    index into keys.txt (the card's {@link CatalogPatch#printingKey}), per card
+ *   cards.bucket   byte   RarityBucket ordinal, per card
+ * </pre>
+ * The text files are dictionaries, one name per line, only ever appended to. Cards are named
+ * by printing key rather than catalog position so the log stays valid when the catalog
+ * changes. packs.end is written last, so after a crash reading stops at the last pack that
+ * made it into every file. A dictionary line without its newline is ignored the same way.
+ * The columns and dictionaries are cut back to what was read before the next append, so
+ * opening the log never writes.
+ *
+ * Only the pack columns and cards.bucket are kept in memory (17 bytes per pack and one per
+ * card), plus a derived per-pack mask of the buckets in the pack, so "did this pack have a
+ * hit" and "packs since the last SEC" are scans over the pack columns alone. Safe to use from
+ * several threads.
+ *
+ * {@link #record} only updates memory under a short lock and queues the bytes; one writer
+ * thread appends them through column files it keeps open, several queued packs at a time.
+ * The queue is bounded, so a writer that falls behind slows recording down rather than
+ * growing without limit. Call {@link #flush()} or {@link #close()} before exiting.
+ */
+public class PullLog {
+
+    private static final LatencyHistogram RECORD = Metrics.histogram("pulls.record");
+    private static final LatencyHistogram WRITE = Metrics.histogram("pulls.write");
+    private static final int QUEUED_BATCHES = 1024;
+    private static final int BUCKETS = RarityBucket.values().length;
+
+    private final Path dir;
+    private final String[] keyOf;        // catalog position -> printing key
+    private final byte[] bucketOfPosition; // catalog position -> RarityBucket ordinal
+    private final List<String> sets = new ArrayList<>();
+    private final List<String> profiles = new ArrayList<>();
+    private final Map<String, Integer> setIds = new HashMap<>();
+    private final Map<String, Integer> profileIds = new HashMap<>();
+    private final Map<String, Integer> keyIds = new HashMap<>();
+
+    private int packs;
+    private long[] times = new long[64];
+    private short[] setOf = new short[64];
+    private short[] profileOf = new short[64];
+    private int[] end = new int[64];
+    private byte[] maskOf = new byte[64]; // buckets present in the pack, bit per ordinal
+    private int cards;
+    private byte[] bucketOf = new byte[1024];
+
+    // Appends for one record() call, in file order: dictionaries, cards, then packs.end last.
+    private record Batch(List<Write> writes, CountDownLatch done) { }
+
+    private record Write(String file, ByteBuffer bytes) { }
+
+    private static final Batch STOP = new Batch(List.of(), null);
+
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+    private final Map<String, FileChannel> channels = new HashMap<>(); // Writer thread only
+    private Thread writer; // Started by the first record()
+    private boolean closed;
+    private volatile boolean failed; // A write failed; later packs are kept in memory only
+    private int readPacks; // Packs and cards found by read(), where the first append repairs the columns
+    private int readCards;
+    private final Map<String, Long> readNameBytes = new HashMap<>(); // Complete lines per dictionary, likewise
+    private boolean repaired; // Writer thread only
+
+    /** Packs opened, those with at least one hit, and hit cards. */
+    public record HitRate(String setCode, int packs, int hitPacks, int hits) {
+
+        public double packRate() {
+            return packs == 0 ? 0 : (double) hitPacks / packs;
+        }
+    }
+
+    public PullLog(Path dir, List<CardData> catalog) {
+        this.dir = dir;
+        this.keyOf = CatalogPatch.keys(catalog);
+        this.bucketOfPosition = new byte[catalog.size()];
+        for (int position = 0; position < bucketOfPosition.length; position++) {
+            bucketOfPosition[position] = (byte) RarityBucket.of(catalog.get(position)).ordinal();
+        }
+        try {
+            read();
+        } catch (IOException e) {
+            System.err.println("Error reading pull history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The log under pulls/ in the data directory (-Donepiece.dataDir).
+     */
+    public static PullLog open(List<CardData> catalog) {
+        return new PullLog(Paths.get(System.getProperty("onepiece.dataDir", ""), "pulls"), catalog);
+    }
+
+    /**
+     * Appends opened packs.
+     * @param positions Catalog positions, packSize per pack, pack after pack, as
+     *                  PackGenerator.openPacks returns them.
+     */
+    public void record(String profile, String setCode, int packSize, int[] positions, long epochMillis) {
+        if (packSize <= 0 || positions.length == 0) {
+            return;
+        }
+        long start = Metrics.now();
+        int n = positions.length / packSize;
+        List<Write> writes = new ArrayList<>(9);
+        synchronized (this) {
+            if (closed) {
+                System.err.println("Pull history is closed, not recording " + n + " pack(s)");
+                return;
+            }
+            int profileId = id(profiles, profileIds, profile, "profiles.txt", writes);
+            int setId = id(sets, setIds, setCode, "sets.txt", writes);
+            if (profileId < 0 || setId < 0) {
+                if (!writes.isEmpty()) enqueue(new Batch(writes, null)); // Keep the dictionaries in step
+                return;
+            }
+            ByteBuffer keys = ByteBuffer.allocate(positions.length * 4);
+            byte[] cardBuckets = new byte[positions.length];
+            StringBuilder newKeys = new StringBuilder();
+            for (int i = 0; i < positions.length; i++) {
+                keys.putInt(keyId(keyOf[positions[i]], newKeys));
+                cardBuckets[i] = bucketOfPosition[positions[i]];
+            }
+            if (newKeys.length() > 0) {
+                writes.add(new Write("keys.txt", ByteBuffer.wrap(newKeys.toString().getBytes(StandardCharsets.UTF_8))));
+            }
+            ByteBuffer packTimes = ByteBuffer.allocate(n * 8);
+            ByteBuffer packSets = ByteBuffer.allocate(n * 2);
+            ByteBuffer packProfiles = ByteBuffer.allocate(n * 2);
+            ByteBuffer packEnds = ByteBuffer.allocate(n * 4);
+            for (int p = 0; p < n; p++) {
+                packTimes.putLong(epochMillis);
+                packSets.putShort((short) setId);
+                packProfiles.putShort((short) profileId);
+                packEnds.putInt(cards + (p + 1) * packSize);
+            }
+            writes.add(new Write("cards.key", keys));
+            writes.add(new Write("cards.bucket", ByteBuffer.wrap(cardBuckets)));
+            writes.add(new Write("packs.time", packTimes));
+            writes.add(new Write("packs.set", packSets));
+            writes.add(new Write("packs.profile", packProfiles));
+            writes.add(new Write("packs.end", packEnds));
+            for (int p = 0; p < n; p++) {
+                addPack(epochMillis, (short) setId, (short) profileId, cardBuckets, p * packSize, packSize);
+            }
+            // Queued while still holding the lock, so batches reach the files in id order.
+            enqueue(new Batch(writes, null));
+        }
+        RECORD.recordSince(start);
+    }
+
+    /**
+     * Waits until everything recorded so far has been written.
+     */
+    public void flush() {
+        CountDownLatch done = new CountDownLatch(1);
+        synchronized (this) {
+            if (writer == null || closed) { // close() has already written everything
+                return;
+            }
+            enqueue(new Batch(List.of(), done));
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes what is queued, then stops the writer and closes the files. Queries keep
+     * working; later packs are not recorded.
+     */
+    public void close() {
+        Thread stopping;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            stopping = writer;
+            if (stopping != null) {
+                enqueue(STOP);
+            }
+        }
+        if (stopping != null) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public synchronized int packCount() {
+        return packs;
+    }
+
+    public synchronized int cardCount() {
+        return cards;
+    }
+
+    /**
+     * Names of the sets in the log, in the order they were first opened.
+     */
+    public synchronized List<String> sets() {
+        return List.copyOf(sets);
+    }
+
+    /**
+     * Hit rate per set, in the order sets were first opened.
+     * @param profile Only this profile's packs, or null for everyone's.
+     */
+    public synchronized List<HitRate> hitRates(String profile, Set<RarityBucket> hitBuckets) {
+        int profileId = lookup(profileIds, profile);
+        if (profileId == -2) {
+            return List.of();
+        }
+        int hitMask = mask(hitBuckets);
+        int[] packsBySet = new int[sets.size()];
+        int[] hitPacksBySet = new int[sets.size()];
+        int[] hitsBySet = new int[sets.size()];
+        for (int p = 0; p < packs; p++) {
+            if (profileId >= 0 && profileOf[p] != profileId) continue;
+            int set = setOf[p];
+            packsBySet[set]++;
+            if ((maskOf[p] & hitMask) != 0) {
+                hitPacksBySet[set]++;
+                for (int c = p == 0 ? 0 : end[p - 1]; c < end[p]; c++) {
+                    hitsBySet[set] += (hitMask >>> bucketOf[c]) & 1;
+                }
+            }
+        }
+        List<HitRate> rates = new ArrayList<>();
+        for (int set = 0; set < sets.size(); set++) {
+            if (packsBySet[set] > 0) {
+                rates.add(new HitRate(sets.get(set), packsBySet[set], hitPacksBySet[set], hitsBySet[set]));
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Packs matching the filters.
+     * @param profile Null for every profile.
+     * @param setCode Null for every set.
+     */
+    public synchronized int packs(String profile, String setCode) {
+        int profileId = lookup(profileIds, profile);
+        int setId = lookup(setIds, setCode);
+        if (profileId == -2 || setId == -2) {
+            return 0;
+        }
+        int count = 0;
+        for (int p = 0; p < packs; p++) {
+            if ((profileId < 0 || profileOf[p] == profileId) && (setId < 0 || setOf[p] == setId)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Cards pulled per rarity bucket, indexed by {@link RarityBucket#ordinal()}.
+     * @param profile Null for every profile.
+     * @param setCode Null for every set.
+     */
+    public synchronized long[] pulledByBucket(String profile, String setCode) {
+        long[] counts = new long[BUCKETS];
+        int profileId = lookup(profileIds, profile);
+        int setId = lookup(setIds, setCode);
+        if (profileId == -2 || setId == -2) {
+            return counts;
+        }
+        if (profileId < 0 && setId < 0) {
+            // Four interleaved tallies, so consecutive cards of the same rarity do not each
+            // wait for the previous increment.
+            int[] lanes = new int[4 * BUCKETS];
+            int c = 0;
+            for (; c + 3 < cards; c += 4) {
+                lanes[bucketOf[c]]++;
+                lanes[BUCKETS + bucketOf[c + 1]]++;
+                lanes[2 * BUCKETS + bucketOf[c + 2]]++;
+                lanes[3 * BUCKETS + bucketOf[c + 3]]++;
+            }
+            for (; c < cards; c++) {
+                lanes[bucketOf[c]]++;
+            }
+            for (int i = 0; i < lanes.length; i++) {
+                counts[i % BUCKETS] += lanes[i];
+            }
+            return counts;
+        }
+        for (int p = 0; p < packs; p++) {
+            if ((profileId < 0 || profileOf[p] == profileId) && (setId < 0 || setOf[p] == setId)) {
+                for (int c = p == 0 ? 0 : end[p - 1]; c < end[p]; c++) {
+                    counts[bucketOf[c]]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Packs opened since the last one with a card from the bucket (0 if the latest pack had
+     * one), or -1 if no matching pack ever did.
+     * @param profile Null for every profile.
+     * @param setCode Null for every set.
+     */
+    public synchronized int packsSinceLast(RarityBucket bucket, String profile, String setCode) {
+        int profileId = lookup(profileIds, profile);
+        int setId = lookup(setIds, setCode);
+        if (profileId == -2 || setId == -2) {
+            return -1;
+        }
+        int bit = 1 << bucket.ordinal();
+        int since = 0;
+        for (int p = packs - 1; p >= 0; p--) {
+            if ((profileId < 0 || profileOf[p] == profileId) && (setId < 0 || setOf[p] == setId)) {
+                if ((maskOf[p] & bit) != 0) return since;
+                since++;
+            }
+        }
+        return -1;
+    }
+
+    /** When the pack was recorded, in epoch millis. */
+    public synchronized long time(int pack) {
+        return times[pack];
+    }
+
+    // -1 for "any" (null), -2 for a name the log has never seen.
+    private static int lookup(Map<String, Integer> ids, String name) {
+        if (name == null) return -1;
+        Integer id = ids.get(name);
+        return id == null ? -2 : id;
+    }
+
+    private static int mask(Set<RarityBucket> buckets) {
+        int mask = 0;
+        for (RarityBucket bucket : buckets) {
+            mask |= 1 << bucket.ordinal();
+        }
+        return mask;
+    }
+
+    private void addPack(long time, short set, short profile, byte[] buckets, int from, int size) {
+        if (packs == times.length) {
+            int capacity = packs * 2;
+            times = Arrays.copyOf(times, capacity);
+            setOf = Arrays.copyOf(setOf, capacity);
+            profileOf = Arrays.copyOf(profileOf, capacity);
+            end = Arrays.copyOf(end, capacity);
+            maskOf = Arrays.copyOf(maskOf, capacity);
+        }
+        if (cards + size > bucketOf.length) {
+            bucketOf = Arrays.copyOf(bucketOf, Math.max(bucketOf.length * 2, cards + size));
+        }
+        int mask = 0;
+        for (int i = 0; i < size; i++) {
+            bucketOf[cards + i] = buckets[from + i];
+            mask |= 1 << buckets[from + i];
+        }
+        cards += size;
+        times[packs] = time;
+        setOf[packs] = set;
+        profileOf[packs] = profile;
+        end[packs] = cards;
+        maskOf[packs] = (byte) mask;
+        packs++;
+    }
+
+    // -1 when the dictionary is full.
+    private int id(List<String> names, Map<String, Integer> ids, String name, String file, List<Write> writes) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (names.size() > Short.MAX_VALUE) {
+            System.err.println("Pull history: too many names in " + file + ", not recording '" + name + "'");
+            return -1;
+        }
+        writes.add(new Write(file, ByteBuffer.wrap((name + "\n").getBytes(StandardCharsets.UTF_8))));
+        names.add(name);
+        ids.put(name, names.size() - 1);
+        return names.size() - 1;
+    }
+
+    private int keyId(String key, StringBuilder newKeys) {
+        Integer id = keyIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        newKeys.append(key).append('\n');
+        keyIds.put(key, keyIds.size());
+        return keyIds.size() - 1;
+    }
+
+    // Caller holds the lock. Blocks while the queue is full.
+    private void enqueue(Batch batch) {
+        if (writer == null) {
+            writer = new Thread(this::writeLoop, "pull-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Error saving pull history: interrupted, the latest packs were not saved");
+        }
+    }
+
+    /**
+     * The writer thread: takes every queued batch and appends them in order, until it reaches
+     * the one {@link #close()} queued.
+     */
+    private void writeLoop() {
+        List<Batch> batches = new ArrayList<>();
+        boolean stopping = false;
+        try {
+            while (!stopping) {
+                batches.add(queue.take());
+                queue.drainTo(batches);
+                long start = Metrics.now();
+                if (!failed) {
+                    try {
+                        for (Batch batch : batches) {
+                            for (Write write : batch.writes()) {
+                                append(write.file(), write.bytes());
+                            }
+                        }
+                    } catch (IOException e) {
+                        failed = true;
+                        System.err.println("Error saving pull history: " + e.getMessage()
+                                + ". Packs opened from now on are not saved until restart.");
+                        closeChannels();
+                    }
+                }
+                WRITE.recordSince(start);
+                for (Batch batch : batches) {
+                    if (batch.done() != null) batch.done().countDown();
+                    stopping |= batch == STOP;
+                }
+                batches.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void append(String file, ByteBuffer bytes) throws IOException {
+        if (!repaired) {
+            repair();
+            repaired = true;
+        }
+        FileChannel channel = channels.get(file);
+        if (channel == null) {
+            Files.createDirectories(dir);
+            channel = FileChannel.open(dir.resolve(file), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channels.put(file, channel);
+        }
+        bytes.rewind();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void closeChannels() {
+        for (FileChannel channel : channels.values()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing pull history: " + e.getMessage());
+            }
+        }
+        channels.clear();
+    }
+
+    private void read() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        readNames("sets.txt", sets, setIds);
+        readNames("profiles.txt", profiles, profileIds);
+        readNames("keys.txt", new ArrayList<>(), keyIds);
+
+        ByteBuffer packTimes = column("packs.time");
+        ByteBuffer packSets = column("packs.set");
+        ByteBuffer packProfiles = column("packs.profile");
+        ByteBuffer packEnds = column("packs.end");
+        ByteBuffer cardKeys = column("cards.key");
+        ByteBuffer cardBuckets = column("cards.bucket");
+        int n = Math.min(Math.min(packTimes.limit() / 8, packSets.limit() / 2),
+                Math.min(packProfiles.limit() / 2, packEnds.limit() / 4));
+        int cardLimit = Math.min(cardKeys.limit() / 4, cardBuckets.limit());
+        while (n > 0 && packEnds.getInt((n - 1) * 4) > cardLimit) {
+            n--;
+        }
+
+        int capacity = Math.max(64, Integer.highestOneBit(Math.max(1, n)) * 2);
+        times = new long[capacity];
+        setOf = new short[capacity];
+        profileOf = new short[capacity];
+        end = new int[capacity];
+        maskOf = new byte[capacity];
+        int totalCards = n == 0 ? 0 : packEnds.getInt((n - 1) * 4);
+        bucketOf = new byte[Math.max(1024, totalCards)];
+        cardBuckets.get(0, bucketOf, 0, totalCards);
+        packTimes.asLongBuffer().get(0, times, 0, n);
+        packSets.asShortBuffer().get(0, setOf, 0, n);
+        packProfiles.asShortBuffer().get(0, profileOf, 0, n);
+        packEnds.asIntBuffer().get(0, end, 0, n);
+        for (int p = 0, c = 0; p < n; p++) {
+            int mask = 0;
+            for (; c < end[p]; c++) {
+                mask |= 1 << bucketOf[c];
+            }
+            maskOf[p] = (byte) mask;
+        }
+        packs = n;
+        cards = totalCards;
+        readPacks = n;
+        readCards = totalCards;
+    }
+
+    // Cuts every file back to what read() found complete, after an interrupted append.
+    private void repair() throws IOException {
+        for (Map.Entry<String, Long> dictionary : readNameBytes.entrySet()) {
+            truncate(dictionary.getKey(), dictionary.getValue());
+        }
+        truncate("packs.time", readPacks * 8L);
+        truncate("packs.set", readPacks * 2L);
+        truncate("packs.profile", readPacks * 2L);
+        truncate("packs.end", readPacks * 4L);
+        truncate("cards.key", readCards * 4L);
+        truncate("cards.bucket", readCards);
+    }
+
+    private void readNames(String file, List<String> names, Map<String, Integer> ids) throws IOException {
+        Path path = dir.resolve(file);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') {
+            complete--; // A torn last line; '\n' never occurs inside a UTF-8 sequence
+        }
+        readNameBytes.put(file, (long) complete);
+        int lineStart = 0;
+        for (int i = 0; i < complete; i++) {
+            if (bytes[i] == '\n') {
+                String name = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                ids.put(name, names.size());
+                names.add(name);
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    private ByteBuffer column(String name) throws IOException {
+        Path path = dir.resolve(name);
+        return Files.isRegularFile(path) ? ByteBuffer.wrap(Files.readAllBytes(path)) : ByteBuffer.allocate(0);
+    }
+
+    private void truncate(String name, long size) throws IOException {
+        Path path = dir.resolve(name);
+        if (Files.isRegularFile(path) && Files.size(path) > size) {
+            System.err.println("Pull history: dropping an incomplete write at the end of " + name);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(size);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.SplittableRandom;
+
+/**
+ * Walker/Vose alias table: samples an index with probability proportional to its weight
+ * in O(1), using one random int and one random double.
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights Non-negative weights with a positive sum.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double w : weights) {
+            if (w < 0) throw new IllegalArgumentException("Negative weight: " + w);
+            total += w;
+        }
+        if (n == 0 || total <= 0) {
+            throw new IllegalArgumentException("Alias table needs at least one positive weight");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[smallCount++] = i; else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) small[smallCount++] = more; else large[largeCount++] = more;
+        }
+        // Whatever is left is 1.0 up to rounding error.
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) probability[small[--smallCount]] = 1.0;
+    }
+
+    public int sample(SplittableRandom random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,297 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Loads cards from a compact binary catalog compiled from the card XML.
+ *
+ * The catalog is a header, an offset index into a table of unique UTF-8 strings, and one
+ * fixed-width record per card that refers to those strings by number. It is memory-mapped,
+ * so startup does not parse any text. The header stores a CRC32 of the XML it was built
+ * from; if the XML changes, the catalog is treated as stale, the XML is parsed with
+ * {@link CardLoader} instead and a fresh catalog is written for the next start.
+ *
+ * The build compiles the catalog into target/classes (see pom.xml). When the application
+ * runs from a jar, the packaged copy cannot be mapped, so a copy is kept in the data directory
+ * (-Donepiece.dataDir, default the working directory).
+ *
+ * Any local {@link CatalogPatch} files are applied on top of the loaded catalog.
+ */
+public class BinaryCardLoader {
+
+    public static final String CATALOG_RESOURCE = "/OnePieceCards.bin";
+    private static final String CACHE_FILE = "card_catalog.bin";
+
+    private static final int MAGIC = 0x4F504343; // "OPCC"
+    private static final int VERSION = 1;
+
+    // Header: magic, version, source CRC, body CRC, card count, string count, string data offset, record offset
+    private static final int HEADER_SIZE = 40;
+    // Record: 11 string references, power, counter, flags
+    private static final int STRING_FIELDS = 11;
+    private static final int RECORD_SIZE = (STRING_FIELDS + 3) * Integer.BYTES;
+    private static final int FLAG_ALTERNATE_ART = 1;
+
+    private static final LatencyHistogram LOAD = Metrics.histogram("catalog.load");
+
+    public static List<CardData> loadCards(String xmlPath) {
+        return loadCards(xmlPath, progress -> { });
+    }
+
+    /**
+     * Loads the cards for the given XML resource, preferring an up-to-date binary catalog.
+     * Falls back to parsing the XML (and rebuilding the cached catalog) when no matching
+     * catalog is found.
+     * @param xmlPath Classpath location of the card XML the catalog was compiled from.
+     * @param onProgress Receives load progress from 0.0 to 1.0, as in {@link CardLoader}.
+     */
+    public static List<CardData> loadCards(String xmlPath, DoubleConsumer onProgress) {
+        long sourceCrc;
+        try {
+            sourceCrc = checksum(xmlPath);
+        } catch (IOException e) {
+            System.err.println("Failed to read XML: " + xmlPath);
+            return new ArrayList<>();
+        }
+
+        long start = Metrics.now();
+        for (Path candidate : catalogCandidates()) {
+            List<CardData> cards = read(candidate, sourceCrc);
+            if (cards != null) {
+                cards = CatalogPatch.applyAll(cards, CatalogPatch.directory());
+                onProgress.accept(1.0);
+                LOAD.recordSince(start);
+                return cards;
+            }
+        }
+
+        System.err.println("No up-to-date card catalog found. Parsing " + xmlPath + " instead.");
+        List<CardData> cards = CardLoader.loadCards(xmlPath, onProgress);
+        if (!cards.isEmpty()) {
+            try {
+                write(cards, sourceCrc, cacheFile());
+            } catch (IOException e) {
+                System.err.println("Error writing card catalog: " + e.getMessage());
+            }
+            cards = CatalogPatch.applyAll(cards, CatalogPatch.directory());
+        }
+        LOAD.recordSince(start);
+        return cards;
+    }
+
+    /**
+     * Reads a catalog if it exists, is intact and was built from XML with the given checksum.
+     * @return The cards, or null if the catalog is missing, stale or corrupt.
+     */
+    public static List<CardData> read(Path catalog, long expectedSourceCrc) {
+        if (!Files.isRegularFile(catalog)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(catalog, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION || buf.getLong(8) != expectedSourceCrc) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER_SIZE, buf.capacity() - HEADER_SIZE));
+            if (crc.getValue() != buf.getLong(16)) {
+                System.err.println("Card catalog " + catalog + " is corrupt; ignoring it.");
+                return null;
+            }
+            return decode(buf);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading card catalog " + catalog + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<CardData> decode(ByteBuffer buf) {
+        int cardCount = buf.getInt(24);
+        int stringCount = buf.getInt(28);
+        int stringData = buf.getInt(32);
+        int records = buf.getInt(36);
+
+        // Each unique string is decoded exactly once and shared by every card that uses it.
+        String[] strings = new String[stringCount];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < stringCount; i++) {
+            int start = buf.getInt(HEADER_SIZE + i * Integer.BYTES);
+            int end = buf.getInt(HEADER_SIZE + (i + 1) * Integer.BYTES);
+            int len = end - start;
+            if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+            buf.get(stringData + start, scratch, 0, len);
+            strings[i] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        List<CardData> cards = new ArrayList<>(cardCount);
+        int[] ref = new int[STRING_FIELDS];
+        for (int c = 0; c < cardCount; c++) {
+            int pos = records + c * RECORD_SIZE;
+            for (int f = 0; f < STRING_FIELDS; f++) {
+                ref[f] = buf.getInt(pos + f * Integer.BYTES);
+            }
+            int power = buf.getInt(pos + STRING_FIELDS * Integer.BYTES);
+            int counter = buf.getInt(pos + (STRING_FIELDS + 1) * Integer.BYTES);
+            int flags = buf.getInt(pos + (STRING_FIELDS + 2) * Integer.BYTES);
+            cards.add(new CardData(strings[ref[0]], strings[ref[1]], strings[ref[2]], strings[ref[3]], strings[ref[4]],
+                    power, counter, strings[ref[5]], strings[ref[6]], strings[ref[7]], strings[ref[8]],
+                    (flags & FLAG_ALTERNATE_ART) != 0, strings[ref[9]], strings[ref[10]]));
+        }
+        return cards;
+    }
+
+    /**
+     * Writes the cards as a catalog. The file is written to a temporary sibling first and
+     * moved into place, so a reader never sees a half-written catalog.
+     */
+    public static void write(List<CardData> cards, long sourceCrc, Path target) throws IOException {
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        int[] refs = new int[cards.size() * STRING_FIELDS];
+        int r = 0;
+        for (CardData card : cards) {
+            for (String value : stringFields(card)) {
+                refs[r++] = stringIds.computeIfAbsent(value, k -> stringIds.size());
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(stringIds.size());
+        int stringBytes = 0;
+        for (String s : stringIds.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += bytes.length;
+        }
+
+        int stringData = HEADER_SIZE + (encoded.size() + 1) * Integer.BYTES;
+        int records = stringData + stringBytes;
+        ByteBuffer buf = ByteBuffer.allocate(records + cards.size() * RECORD_SIZE);
+
+        buf.position(HEADER_SIZE);
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            buf.putInt(offset);
+            offset += bytes.length;
+        }
+        buf.putInt(offset);
+        for (byte[] bytes : encoded) {
+            buf.put(bytes);
+        }
+        r = 0;
+        for (CardData card : cards) {
+            for (int f = 0; f < STRING_FIELDS; f++) {
+                buf.putInt(refs[r++]);
+            }
+            buf.putInt(card.power());
+            buf.putInt(card.counter());
+            buf.putInt(card.alternateArt() ? FLAG_ALTERNATE_ART : 0);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_SIZE, buf.capacity() - HEADER_SIZE);
+        buf.putInt(0, MAGIC)
+           .putInt(4, VERSION)
+           .putLong(8, sourceCrc)
+           .putLong(16, crc.getValue())
+           .putInt(24, cards.size())
+           .putInt(28, encoded.size())
+           .putInt(32, stringData)
+           .putInt(36, records);
+
+        Path absolute = target.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try {
+            Files.write(temp, buf.array());
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * CRC32 of a classpath resource, used to tell whether a catalog matches its source XML.
+     */
+    public static long checksum(String resourcePath) throws IOException {
+        try (InputStream in = BinaryCardLoader.class.getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                throw new IOException("Resource not found: " + resourcePath);
+            }
+            CRC32 crc = new CRC32();
+            byte[] chunk = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                crc.update(chunk, 0, n);
+            }
+            return crc.getValue();
+        }
+    }
+
+    private static String[] stringFields(CardData card) {
+        return new String[] {
+            card.id(), card.name(), card.rarity(), card.type(), card.attribute(), card.color(),
+            card.cardType(), card.effect(), card.imageUrl(), card.seriesId(), card.seriesName()
+        };
+    }
+
+    // The packaged catalog can only be mapped when the classpath is a directory, not a jar.
+    private static List<Path> catalogCandidates() {
+        List<Path> candidates = new ArrayList<>(2);
+        URL packaged = BinaryCardLoader.class.getResource(CATALOG_RESOURCE);
+        if (packaged != null && "file".equals(packaged.getProtocol())) {
+            try {
+                candidates.add(Paths.get(packaged.toURI()));
+            } catch (URISyntaxException ignored) {
+                // Fall through to the cached copy.
+            }
+        }
+        candidates.add(cacheFile());
+        return candidates;
+    }
+
+    private static Path cacheFile() {
+        return Paths.get(System.getProperty("onepiece.dataDir", ""), CACHE_FILE);
+    }
+
+    /**
+     * Build-time entry point: compiles the card XML into a catalog.
+     * Usage: BinaryCardLoader &lt;output file&gt; [xml resource]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BinaryCardLoader <output file> [xml resource]");
+            System.exit(1);
+        }
+        String xmlPath = args.length > 1 ? args[1] : "/OnePieceCards.xml";
+        List<CardData> cards = CardLoader.loadCards(xmlPath);
+        if (cards.isEmpty()) {
+            throw new IOException("No cards loaded from " + xmlPath);
+        }
+        Path target = Paths.get(args[0]);
+        write(cards, checksum(xmlPath), target);
+        System.out.println("Compiled " + cards.size() + " cards into " + target + " (" + Files.size(target) + " bytes)");
+    }
+}
@@ -0,0 +1,130 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The result of opening many packs at once, folded per distinct card: how many copies were
+ * pulled and whether the card is new to the collection. Lines are sorted rarest first.
+ *
+ * Build it before applying the pulls, so "new" is judged against the collection as it was,
+ * then call {@link #applyTo} to add every card in one pass.
+ */
+public final class BoxSummary {
+
+    /** Rarest first; used to sort lines and to pick out hits. */
+    private static final List<RarityBucket> RARITY_ORDER = List.of(
+            RarityBucket.SECRET_RARE, RarityBucket.ALT_ART, RarityBucket.SUPER_RARE, RarityBucket.LEADER,
+            RarityBucket.RARE, RarityBucket.UNCOMMON, RarityBucket.COMMON);
+
+    public record Line(int position, CardData card, RarityBucket bucket, int pulled, boolean isNew) {
+
+        public boolean isHit() {
+            return CompletionSimulator.SR_PLUS.contains(bucket);
+        }
+    }
+
+    private final String setCode;
+    private final int packs;
+    private final int cardCount;
+    private final List<Line> lines;
+    private final long value;
+    private final int[] pulledByBucket = new int[RarityBucket.values().length];
+
+    private BoxSummary(String setCode, int packs, int cardCount, List<Line> lines, long value) {
+        this.setCode = setCode;
+        this.packs = packs;
+        this.cardCount = cardCount;
+        this.lines = lines;
+        this.value = value;
+        for (Line line : lines) {
+            pulledByBucket[line.bucket().ordinal()] += line.pulled();
+        }
+    }
+
+    /**
+     * @param pulled Catalog positions of every card pulled, e.g. from PackGenerator.openPacks.
+     * @param owned The collection before the pulls are added.
+     */
+    public static BoxSummary of(String setCode, int packs, int[] pulled, List<CardData> catalog, CollectionState owned) {
+        int[] counts = new int[catalog.size()];
+        List<Integer> distinct = new ArrayList<>();
+        for (int position : pulled) {
+            if (counts[position]++ == 0) {
+                distinct.add(position);
+            }
+        }
+        List<Line> lines = new ArrayList<>(distinct.size());
+        long value = 0;
+        for (int position : distinct) {
+            CardData card = catalog.get(position);
+            value += (long) counts[position] * owned.price(position);
+            lines.add(new Line(position, card, RarityBucket.of(card), counts[position], !owned.isOwned(position)));
+        }
+        lines.sort(Comparator.comparingInt((Line line) -> RARITY_ORDER.indexOf(line.bucket()))
+                .thenComparingInt(Line::position));
+        return new BoxSummary(setCode, packs, pulled.length, List.copyOf(lines), value);
+    }
+
+    /**
+     * Adds every pulled copy to the collection, one update per distinct card.
+     */
+    public void applyTo(CollectionState collection) {
+        for (Line line : lines) {
+            collection.setQuantity(line.position(), collection.quantity(line.position()) + line.pulled());
+        }
+    }
+
+    public String setCode() {
+        return setCode;
+    }
+
+    public int packs() {
+        return packs;
+    }
+
+    public int cardCount() {
+        return cardCount;
+    }
+
+    /** Market value of every card pulled, in cents, at the collection's prices. */
+    public long value() {
+        return value;
+    }
+
+    /** Every distinct card pulled, rarest first. */
+    public List<Line> lines() {
+        return lines;
+    }
+
+    public List<Line> newCards() {
+        return lines.stream().filter(Line::isNew).toList();
+    }
+
+    /** Cards already owned before this box, plus extra copies of new ones. */
+    public int duplicateCount() {
+        int duplicates = 0;
+        for (Line line : lines) {
+            duplicates += line.isNew() ? line.pulled() - 1 : line.pulled();
+        }
+        return duplicates;
+    }
+
+    public List<Line> duplicates() {
+        return lines.stream().filter(line -> !line.isNew() || line.pulled() > 1).toList();
+    }
+
+    public List<Line> hits() {
+        return lines.stream().filter(Line::isHit).toList();
+    }
+
+    public int pulled(RarityBucket bucket) {
+        return pulledByBucket[bucket.ordinal()];
+    }
+
+    /** Buckets rarest first, for listing counts. */
+    public static List<RarityBucket> rarityOrder() {
+        return RARITY_ORDER;
+    }
+}
@@ -6,92 +6,71 @@ package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
  */
 
 import javafx.beans.property.*;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
+/**
+ * JavaFX view of a {@link CardData} for the table. Properties are only created when a
+ * table cell asks for them, so cards that are never rendered stay two references and an int.
+ * The quantity is read from and written to the shared {@link CollectionState}; call
+ * TableView.refresh() after changing it to update the cells.
+ */
 public class Card {
-    private final StringProperty id = new SimpleStringProperty();
-    private final StringProperty name = new SimpleStringProperty();
-    private final StringProperty rarity = new SimpleStringProperty();
-    private final StringProperty type = new SimpleStringProperty();
-    private final StringProperty attribute = new SimpleStringProperty();
-    private final IntegerProperty power = new SimpleIntegerProperty();
-    private final IntegerProperty counter = new SimpleIntegerProperty();
-    private final StringProperty color = new SimpleStringProperty();
-    private final StringProperty cardType = new SimpleStringProperty();
-    private final StringProperty effect = new SimpleStringProperty();
-    private final StringProperty imageUrl = new SimpleStringProperty();
-    private final BooleanProperty alternateArt = new SimpleBooleanProperty();
-    private final StringProperty seriesId = new SimpleStringProperty();
-    private final StringProperty seriesName = new SimpleStringProperty();
-    private final IntegerProperty quantityOwned = new SimpleIntegerProperty(0); // Tracks how many user has
+    private final int position; // Index in the loaded catalog
+    private final CardData data;
+    private final CollectionState collection;
 
-    public Card(Element element) {
-        this.id.set(get(element, "id"));
-        this.name.set(get(element, "name"));
-        this.rarity.set(get(element, "rarity"));
-        this.type.set(get(element, "type"));
-        this.attribute.set(get(element, "attribute", "-"));
-        this.power.set(parseInt(get(element, "power")));
-        this.counter.set(parseInt(get(element, "counter")));
-        this.color.set(get(element, "color"));
-        this.cardType.set(get(element, "cardtype", "-"));
-        this.effect.set(get(element, "effect"));
-        this.imageUrl.set(get(element, "imageurl"));
-        this.alternateArt.set(Boolean.parseBoolean(get(element, "alternateart")));
-        this.seriesId.set(get(element, "seriesid"));
-        this.seriesName.set(get(element, "seriesname"));
+    public Card(int position, CardData data, CollectionState collection) {
+        this.position = position;
+        this.data = data;
+        this.collection = collection;
     }
 
-    // Properties (for TableView bindings and filtering)
-    public StringProperty idProperty() { return id; }
-    public StringProperty nameProperty() { return name; }
-    public StringProperty rarityProperty() { return rarity; }
-    public StringProperty typeProperty() { return type; }
-    public StringProperty attributeProperty() { return attribute; }
-    public IntegerProperty powerProperty() { return power; }
-    public IntegerProperty counterProperty() { return counter; }
-    public StringProperty colorProperty() { return color; }
-    public StringProperty cardTypeProperty() { return cardType; }
-    public StringProperty effectProperty() { return effect; }
-    public StringProperty imageUrlProperty() { return imageUrl; }
-    public BooleanProperty alternateArtProperty() { return alternateArt; }
-    public StringProperty seriesIdProperty() { return seriesId; }
-    public StringProperty seriesNameProperty() { return seriesName; }
-    public IntegerProperty quantityOwnedProperty() { return quantityOwned; }
+    public int position() { return position; }
+    public CardData data() { return data; }
+
+    // Properties (for TableView bindings)
+    public ReadOnlyStringProperty idProperty() { return readOnly(data.id()); }
+    public ReadOnlyStringProperty nameProperty() { return readOnly(data.name()); }
+    public ReadOnlyStringProperty rarityProperty() { return readOnly(data.rarity()); }
+    public ReadOnlyStringProperty typeProperty() { return readOnly(data.type()); }
+    public ReadOnlyStringProperty colorProperty() { return readOnly(data.color()); }
+    public ReadOnlyStringProperty imageUrlProperty() { return readOnly(data.imageUrl()); }
+
+    /** Price of one copy in cents, from the collection's price table. */
+    public ReadOnlyIntegerProperty priceProperty() {
+        return new ReadOnlyIntegerWrapper(this, "price", getPrice()).getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty quantityOwnedProperty() {
+        return new ReadOnlyIntegerWrapper(this, "quantityOwned", getQuantityOwned()).getReadOnlyProperty();
+    }
 
     // Logic for collection handling
-    public void incrementQuantity() {
-        quantityOwned.set(quantityOwned.get() + 1);
+    public int getQuantityOwned() {
+        return collection.quantity(position);
     }
 
-    public void resetQuantity() {
-        quantityOwned.set(0);
+    public int getPrice() {
+        return collection.price(position);
+    }
+
+    public void setQuantityOwned(int quantity) {
+        collection.setQuantity(position, quantity);
     }
 
-    private String get(Element parent, String tag) {
-        return get(parent, tag, "");
+    public void incrementQuantity() {
+        collection.increment(position);
     }
 
-    private String get(Element parent, String tag, String defaultVal) {
-        NodeList nodes = parent.getElementsByTagName(tag);
-        if (nodes.getLength() > 0) {
-            String text = nodes.item(0).getTextContent().trim();
-            return (text.equals("-") || text.equalsIgnoreCase("nan")) ? defaultVal : text;
-        }
-        return defaultVal;
+    public void resetQuantity() {
+        collection.reset(position);
     }
 
-    private int parseInt(String text) {
-        try {
-            return Integer.parseInt(text);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+    private ReadOnlyStringProperty readOnly(String value) {
+        return new ReadOnlyStringWrapper(this, null, value).getReadOnlyProperty();
     }
 
     @Override
     public String toString() {
-        return name.get() + " (" + id.get() + ", " + rarity.get() + ")";
+        return data.toString();
     }
 }
@@ -0,0 +1,28 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+/**
+ * Immutable catalog entry for one card, with no JavaFX dependency.
+ * Loaders share identical strings between cards (rarity, color, set name...), so a full
+ * catalog costs one object per card plus the distinct strings.
+ */
+public record CardData(
+        String id,
+        String name,
+        String rarity,
+        String type,
+        String attribute,
+        int power,
+        int counter,
+        String color,
+        String cardType,
+        String effect,
+        String imageUrl,
+        boolean alternateArt,
+        String seriesId,
+        String seriesName) {
+
+    @Override
+    public String toString() {
+        return name + " (" + id + ", " + rarity + ")";
+    }
+}
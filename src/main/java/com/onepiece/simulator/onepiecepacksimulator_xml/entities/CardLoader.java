@@ -10,17 +10,130 @@ package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
  */
 
 
-import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
 
 public class CardLoader {
-    
-      public static List<Card> loadCards(String xmlPath) {
-        List<Card> cards = new ArrayList<>();
+
+    // Tag names of a <card> element, in the order CardData's constructor takes them.
+    private static final String[] TAGS = {
+        "id", "name", "rarity", "type", "attribute", "power", "counter", "color",
+        "cardtype", "effect", "imageurl", "alternateart", "seriesid", "seriesname"
+    };
+    private static final int ID = 0, NAME = 1, RARITY = 2, TYPE = 3, ATTRIBUTE = 4, POWER = 5, COUNTER = 6,
+            COLOR = 7, CARD_TYPE = 8, EFFECT = 9, IMAGE_URL = 10, ALTERNATE_ART = 11, SERIES_ID = 12, SERIES_NAME = 13;
+
+    // Progress is reported roughly every this many cards, plus once at the end.
+    private static final int PROGRESS_STEP = 256;
+
+    // Factory lookup goes through the service loader, so do it once. Readers are created per load.
+    private static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+
+    private static final LatencyHistogram PARSE = Metrics.histogram("catalog.parse.xml");
+
+    public static List<CardData> loadCards(String xmlPath) {
+        return loadCards(xmlPath, progress -> { });
+    }
+
+    /**
+     * Streams the card XML in a single forward pass (StAX), building each CardData as soon as
+     * its closing tag is reached. No DOM tree is kept in memory.
+     * @param xmlPath Classpath location of the card XML.
+     * @param onProgress Receives the fraction of the file consumed so far (0.0 to 1.0), on the
+     *                   calling thread. Reports -1 while the total size is unknown.
+     */
+    public static List<CardData> loadCards(String xmlPath, DoubleConsumer onProgress) {
+        URL resource = CardLoader.class.getResource(xmlPath);
+        if (resource == null) {
+            System.err.println("Failed to load XML: " + xmlPath);
+            return new ArrayList<>();
+        }
+        return loadCards(resource, onProgress);
+    }
+
+    /**
+     * Same as {@link #loadCards(String, DoubleConsumer)} for XML at any URL, e.g. a file
+     * outside the classpath.
+     */
+    public static List<CardData> loadCards(URL resource, DoubleConsumer onProgress) {
+        List<CardData> cards = new ArrayList<>();
+        long start = Metrics.now();
+
+        try {
+            long totalBytes = resource.openConnection().getContentLengthLong();
+            try (CountingInputStream in = new CountingInputStream(resource.openStream())) {
+                XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+                try {
+                    String[] values = new String[TAGS.length];
+                    Map<String, String> strings = new HashMap<>();
+                    int field = -1;
+                    StringBuilder text = new StringBuilder();
+
+                    while (reader.hasNext()) {
+                        switch (reader.next()) {
+                            case XMLStreamConstants.START_ELEMENT -> {
+                                String tag = reader.getLocalName();
+                                if (tag.equals("card")) {
+                                    Arrays.fill(values, null);
+                                } else {
+                                    field = fieldIndex(tag);
+                                    text.setLength(0);
+                                }
+                            }
+                            case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                                if (field >= 0) {
+                                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                                }
+                            }
+                            case XMLStreamConstants.END_ELEMENT -> {
+                                if (field >= 0) {
+                                    values[field] = text.toString();
+                                    field = -1;
+                                } else if (reader.getLocalName().equals("card")) {
+                                    cards.add(toCard(values, strings));
+                                    if (cards.size() % PROGRESS_STEP == 0) {
+                                        onProgress.accept(totalBytes > 0 ? Math.min(1.0, (double) in.count / totalBytes) : -1);
+                                    }
+                                }
+                            }
+                            default -> { }
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+            onProgress.accept(1.0);
+            PARSE.recordSince(start);
+        } catch (IOException | XMLStreamException e) {
+            e.printStackTrace();
+        }
+
+        return cards;
+    }
+
+    /**
+     * The original DOM-based loader. Kept as a reference path so the streaming loader can be
+     * compared against it; the application itself no longer calls it.
+     */
+    public static List<CardData> loadCardsDom(String xmlPath) {
+        List<CardData> cards = new ArrayList<>();
 
         try {
             InputStream inputStream = CardLoader.class.getResourceAsStream(xmlPath);
@@ -35,9 +148,15 @@ public class CardLoader {
 
             NodeList cardNodes = doc.getElementsByTagName("card");
 
+            String[] values = new String[TAGS.length];
+            Map<String, String> strings = new HashMap<>();
             for (int i = 0; i < cardNodes.getLength(); i++) {
                 Element cardElement = (Element) cardNodes.item(i);
-                cards.add(new Card(cardElement));
+                for (int f = 0; f < TAGS.length; f++) {
+                    NodeList nodes = cardElement.getElementsByTagName(TAGS[f]);
+                    values[f] = nodes.getLength() > 0 ? nodes.item(0).getTextContent() : null;
+                }
+                cards.add(toCard(values, strings));
             }
 
         } catch (Exception e) {
@@ -46,4 +165,83 @@ public class CardLoader {
 
         return cards;
     }
-}
\ No newline at end of file
+
+    // Equal strings (rarities, colors, set names, effects shared by alt arts...) are stored once per load.
+    private static CardData toCard(String[] values, Map<String, String> strings) {
+        return new CardData(
+                shared(clean(values[ID], ""), strings),
+                shared(clean(values[NAME], ""), strings),
+                shared(clean(values[RARITY], ""), strings),
+                shared(clean(values[TYPE], ""), strings),
+                shared(clean(values[ATTRIBUTE], "-"), strings),
+                parseInt(clean(values[POWER], "")),
+                parseInt(clean(values[COUNTER], "")),
+                shared(clean(values[COLOR], ""), strings),
+                shared(clean(values[CARD_TYPE], "-"), strings),
+                shared(clean(values[EFFECT], ""), strings),
+                shared(clean(values[IMAGE_URL], ""), strings),
+                Boolean.parseBoolean(clean(values[ALTERNATE_ART], "")),
+                shared(clean(values[SERIES_ID], ""), strings),
+                shared(clean(values[SERIES_NAME], ""), strings));
+    }
+
+    private static String shared(String value, Map<String, String> strings) {
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    // Missing tags, "-" and "nan" all fall back to the default, as the DOM loader always did.
+    private static String clean(String raw, String defaultVal) {
+        if (raw == null) {
+            return defaultVal;
+        }
+        String text = raw.trim();
+        return (text.equals("-") || text.equalsIgnoreCase("nan")) ? defaultVal : text;
+    }
+
+    private static int parseInt(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int fieldIndex(String tag) {
+        for (int i = 0; i < TAGS.length; i++) {
+            if (TAGS[i].equals(tag)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
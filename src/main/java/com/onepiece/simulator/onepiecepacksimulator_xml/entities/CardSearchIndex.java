@@ -0,0 +1,267 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-memory search over the catalog, built once after loading.
+ *
+ * Words from each card's name, effect, traits and ID go into an inverted index: a sorted
+ * array of distinct words and, for each, the sorted catalog positions containing it. Colors,
+ * rarities, types, attributes, traits and sets are facets with one bitset per value. Power
+ * and counter are kept as int columns and range-scanned. Every query produces a bitset of
+ * matching positions.
+ *
+ * Query syntax (terms are ANDed, case-insensitive):
+ * <pre>
+ *   luffy rush                free words; each matches any word starting with it
+ *   color:red  rarity:sr      facets: color, rarity, type, attribute, trait, set
+ *   trait:"straw hat crew"    quotes for values with spaces
+ *   power>=5000  counter:1000  power:3000-6000   numeric filters on power and counter
+ * </pre>
+ * The catalog has no cost field, so cost cannot be searched.
+ */
+public final class CardSearchIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final int size;
+    private final String[] words;       // sorted
+    private final int[][] postings;     // postings[i] = positions containing words[i], sorted
+    private final Map<String, Map<String, BitSet>> facets;
+    private final int[] power;
+    private final int[] counter;
+
+    private CardSearchIndex(int size, String[] words, int[][] postings,
+                            Map<String, Map<String, BitSet>> facets, int[] power, int[] counter) {
+        this.size = size;
+        this.words = words;
+        this.postings = postings;
+        this.facets = facets;
+        this.power = power;
+        this.counter = counter;
+    }
+
+    public static CardSearchIndex build(List<CardData> cards) {
+        int n = cards.size();
+        Map<String, IntList> inverted = new HashMap<>();
+        Map<String, Map<String, BitSet>> facets = new HashMap<>();
+        for (String facet : List.of("color", "rarity", "type", "attribute", "trait", "set")) {
+            facets.put(facet, new HashMap<>());
+        }
+        int[] power = new int[n];
+        int[] counter = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            CardData card = cards.get(i);
+            final int position = i;
+            for (String text : new String[] {card.name(), card.effect(), card.cardType(), card.id()}) {
+                forEachWord(text, word -> inverted.computeIfAbsent(word, w -> new IntList()).addUnique(position));
+            }
+            for (String color : card.color().split("/")) {
+                addFacet(facets, "color", color, i, n);
+            }
+            addFacet(facets, "rarity", card.rarity(), i, n);
+            addFacet(facets, "type", card.type(), i, n);
+            addFacet(facets, "attribute", card.attribute(), i, n);
+            for (String trait : card.cardType().split("/")) {
+                addFacet(facets, "trait", trait, i, n);
+            }
+            addFacet(facets, "set", SetIndex.codeOf(card.seriesName()), i, n);
+            power[i] = card.power();
+            counter[i] = card.counter();
+        }
+
+        String[] words = inverted.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        int[][] postings = new int[words.length][];
+        for (int w = 0; w < words.length; w++) {
+            postings[w] = inverted.get(words[w]).toArray();
+        }
+        return new CardSearchIndex(n, words, postings, facets, power, counter);
+    }
+
+    /**
+     * Catalog positions matching every term of the query. An empty query matches everything.
+     */
+    public BitSet search(String query) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (String term : splitTerms(query)) {
+            result.and(match(term));
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    /**
+     * Positions containing a word that starts with the given prefix.
+     */
+    public BitSet wordPrefix(String prefix) {
+        BitSet result = new BitSet(size);
+        int w = Arrays.binarySearch(words, prefix);
+        if (w < 0) w = -w - 1;
+        for (; w < words.length && words[w].startsWith(prefix); w++) {
+            for (int position : postings[w]) {
+                result.set(position);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Positions with exactly this word.
+     */
+    public int[] postings(String word) {
+        int w = Arrays.binarySearch(words, word.toLowerCase(Locale.ROOT));
+        return w >= 0 ? postings[w] : NO_POSTINGS;
+    }
+
+    public BitSet facet(String facet, String value) {
+        Map<String, BitSet> values = facets.get(facet);
+        BitSet bits = values == null ? null : values.get(value.trim().toLowerCase(Locale.ROOT));
+        return bits != null ? (BitSet) bits.clone() : new BitSet(size);
+    }
+
+    public BitSet powerBetween(int min, int max) {
+        return range(power, min, max);
+    }
+
+    public BitSet counterBetween(int min, int max) {
+        return range(counter, min, max);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private BitSet match(String term) {
+        for (String column : new String[] {"power", "counter"}) {
+            if (term.startsWith(column) && term.length() > column.length()) {
+                int[] range = parseRange(term.substring(column.length()));
+                if (range != null) {
+                    return column.equals("power") ? powerBetween(range[0], range[1]) : counterBetween(range[0], range[1]);
+                }
+            }
+        }
+        int colon = term.indexOf(':');
+        if (colon > 0 && facets.containsKey(term.substring(0, colon))) {
+            return facet(term.substring(0, colon), term.substring(colon + 1));
+        }
+        // Free text: every word of the term has to match (e.g. a quoted "straw hat").
+        BitSet result = null;
+        for (String word : words(term)) {
+            BitSet matches = wordPrefix(word);
+            if (result == null) result = matches; else result.and(matches);
+        }
+        return result != null ? result : allSet();
+    }
+
+    // ">=5000", "<3000", ":1000", ":3000-6000", "=2000" -> inclusive [min, max]
+    private static int[] parseRange(String spec) {
+        try {
+            if (spec.startsWith(">=")) return new int[] {Integer.parseInt(spec.substring(2)), Integer.MAX_VALUE};
+            if (spec.startsWith("<=")) return new int[] {Integer.MIN_VALUE, Integer.parseInt(spec.substring(2))};
+            if (spec.startsWith(">")) return new int[] {Integer.parseInt(spec.substring(1)) + 1, Integer.MAX_VALUE};
+            if (spec.startsWith("<")) return new int[] {Integer.MIN_VALUE, Integer.parseInt(spec.substring(1)) - 1};
+            if (spec.startsWith(":") || spec.startsWith("=")) {
+                String value = spec.substring(1);
+                int dash = value.indexOf('-', 1);
+                if (dash > 0) {
+                    return new int[] {Integer.parseInt(value.substring(0, dash)), Integer.parseInt(value.substring(dash + 1))};
+                }
+                int exact = Integer.parseInt(value);
+                return new int[] {exact, exact};
+            }
+        } catch (NumberFormatException ignored) {
+            // Not a numeric filter; treated as text by the caller.
+        }
+        return null;
+    }
+
+    private BitSet range(int[] column, int min, int max) {
+        BitSet result = new BitSet(size);
+        for (int i = 0; i < column.length; i++) {
+            int value = column[i];
+            if (value >= min && value <= max) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private BitSet allSet() {
+        BitSet all = new BitSet(size);
+        all.set(0, size);
+        return all;
+    }
+
+    private static void addFacet(Map<String, Map<String, BitSet>> facets, String facet, String value, int position, int size) {
+        String key = value.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty() || key.equals("-")) return;
+        facets.get(facet).computeIfAbsent(key, k -> new BitSet(size)).set(position);
+    }
+
+    // Splits on whitespace, keeping "quoted phrases" (and facet:"quoted values") together.
+    private static List<String> splitTerms(String query) {
+        List<String> terms = new ArrayList<>();
+        StringBuilder term = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (term.length() > 0) terms.add(term.toString().toLowerCase(Locale.ROOT));
+                term.setLength(0);
+            } else {
+                term.append(c);
+            }
+        }
+        if (term.length() > 0) terms.add(term.toString().toLowerCase(Locale.ROOT));
+        return terms;
+    }
+
+    private static List<String> words(String text) {
+        List<String> result = new ArrayList<>();
+        forEachWord(text, result::add);
+        return result;
+    }
+
+    private static void forEachWord(String text, Consumer<String> action) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                action.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Growable int array for building postings; positions arrive in ascending order.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addUnique(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
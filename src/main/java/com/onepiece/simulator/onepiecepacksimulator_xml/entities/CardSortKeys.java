@@ -0,0 +1,128 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numeric sort keys for every card, parsed once from the catalog so sorting compares ints.
+ *
+ * <ul>
+ *   <li>rarity rank: C, UC, R, SR, SEC, L, P, SP CARD, TR, then anything else; the printed
+ *       order, not the alphabetical one</li>
+ *   <li>set: the ID prefix (OP, ST, EB, PRB, P) and set number, e.g. OP05 before ST01</li>
+ *   <li>collector number: the digits after the dash in the ID</li>
+ *   <li>group: the position of the card's base printing (the first regular printing with the
+ *       same ID), shared by all of its alternate arts and reprints</li>
+ * </ul>
+ *
+ * The comparators look the keys up by {@link Card#position()} and never allocate, however
+ * many rows are sorted.
+ */
+public final class CardSortKeys {
+
+    private static final List<String> RARITY_ORDER = List.of("C", "UC", "R", "SR", "SEC", "L", "P", "SP CARD", "TR");
+    private static final List<String> PREFIX_ORDER = List.of("OP", "ST", "EB", "PRB", "P");
+
+    private final int[] rarityRank;
+    private final int[] setKey;
+    private final int[] collectorNumber;
+    private final int[] groupOf;
+    private final boolean[] alternateArt;
+
+    private CardSortKeys(int size) {
+        rarityRank = new int[size];
+        setKey = new int[size];
+        collectorNumber = new int[size];
+        groupOf = new int[size];
+        alternateArt = new boolean[size];
+    }
+
+    public static CardSortKeys build(List<CardData> catalog) {
+        CardSortKeys keys = new CardSortKeys(catalog.size());
+        Map<String, Integer> baseById = new HashMap<>();
+        for (int position = 0; position < catalog.size(); position++) {
+            CardData card = catalog.get(position);
+            int rank = RARITY_ORDER.indexOf(card.rarity());
+            keys.rarityRank[position] = rank < 0 ? RARITY_ORDER.size() : rank;
+            keys.alternateArt[position] = card.alternateArt();
+            parseId(card.id(), keys, position);
+            if (!card.alternateArt()) {
+                baseById.putIfAbsent(card.id(), position);
+            }
+        }
+        for (int position = 0; position < catalog.size(); position++) {
+            keys.groupOf[position] = baseById.getOrDefault(catalog.get(position).id(), position);
+        }
+        return keys;
+    }
+
+    // "OP05-119" -> set key 5 (prefix rank * 1000 + set number), collector number 119.
+    private static void parseId(String id, CardSortKeys keys, int position) {
+        int dash = id.indexOf('-');
+        String head = dash < 0 ? id : id.substring(0, dash);
+        int digits = head.length();
+        while (digits > 0 && Character.isDigit(head.charAt(digits - 1))) {
+            digits--;
+        }
+        int prefix = PREFIX_ORDER.indexOf(head.substring(0, digits));
+        int setNumber = digits < head.length() ? Integer.parseInt(head.substring(digits)) : 0;
+        keys.setKey[position] = (prefix < 0 ? PREFIX_ORDER.size() : prefix) * 1000 + setNumber;
+        keys.collectorNumber[position] = dash < 0 ? 0 : parseLeadingInt(id, dash + 1);
+    }
+
+    private static int parseLeadingInt(String text, int from) {
+        int value = 0;
+        for (int i = from; i < text.length() && Character.isDigit(text.charAt(i)) && value < 100_000; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    public int rarityRank(int position) {
+        return rarityRank[position];
+    }
+
+    public int setKey(int position) {
+        return setKey[position];
+    }
+
+    public int collectorNumber(int position) {
+        return collectorNumber[position];
+    }
+
+    /** Position of the card's base printing; the card's own position if it is one. */
+    public int groupOf(int position) {
+        return groupOf[position];
+    }
+
+    public boolean isAlternateArt(int position) {
+        return alternateArt[position];
+    }
+
+    /** Rarest last: C, UC, R, SR, SEC, L, ...; alternate arts after the regular printing. */
+    public Comparator<Card> byRarity() {
+        return (a, b) -> {
+            int pa = a.position(), pb = b.position();
+            int c = Integer.compare(rarityRank[pa], rarityRank[pb]);
+            return c != 0 ? c : Boolean.compare(alternateArt[pa], alternateArt[pb]);
+        };
+    }
+
+    /** Set, then collector number, then regular printing before alternate arts. */
+    public Comparator<Card> byId() {
+        return (a, b) -> {
+            int pa = a.position(), pb = b.position();
+            int c = Integer.compare(setKey[pa], setKey[pb]);
+            if (c != 0) return c;
+            c = Integer.compare(collectorNumber[pa], collectorNumber[pb]);
+            return c != 0 ? c : Boolean.compare(alternateArt[pa], alternateArt[pb]);
+        };
+    }
+
+    /** Catalog order, the tie-breaker that keeps sorts stable between refreshes. */
+    public static Comparator<Card> byPosition() {
+        return (a, b) -> Integer.compare(a.position(), b.position());
+    }
+}
@@ -0,0 +1,241 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owned quantities for the whole catalog, indexed by catalog position.
+ *
+ * Quantities are one int array. Which cards are owned is also kept as bitsets, one for the
+ * catalog and one per set, and owned counts per set and rarity bucket are updated on every
+ * change, so completion figures are O(1) and "missing" views are a few word-wide bit
+ * operations instead of a pass over every card. With prices set ({@link #setPrices}) the
+ * collection's market value, overall and per set, is kept the same way: each change adds
+ * quantity delta times price, so totals never need a re-sum.
+ *
+ * Not thread-safe: the app only touches it from the JavaFX thread, and PackServer only under
+ * the owning profile's lock.
+ */
+public final class CollectionState {
+
+    private static final int BUCKETS = RarityBucket.values().length;
+
+    private final SetIndex setIndex;
+    private final int[] quantities;
+    private final BitSet owned;
+    private final int[] setOf;          // position -> set ordinal
+    private final byte[] bucketOf;      // position -> RarityBucket ordinal
+    private final Map<String, SetState> sets = new HashMap<>();
+    private final SetState[] setsByOrdinal;
+    private int[] prices;               // position -> cents
+    private long value;                 // cents, all copies
+    private long modCount;
+
+    /**
+     * How much of one set is owned: distinct cards in total and per rarity bucket
+     * (arrays indexed by {@link RarityBucket#ordinal()}).
+     */
+    public record Completion(String setCode, int owned, int total, int[] ownedByBucket, int[] totalByBucket) {
+
+        public int owned(RarityBucket bucket) {
+            return ownedByBucket[bucket.ordinal()];
+        }
+
+        public int total(RarityBucket bucket) {
+            return totalByBucket[bucket.ordinal()];
+        }
+
+        public double fraction() {
+            return total == 0 ? 0 : (double) owned / total;
+        }
+    }
+
+    private static final class SetState {
+        final String code;
+        final BitSet members;
+        final BitSet owned;
+        final int[] totalByBucket = new int[BUCKETS];
+        final int[] ownedByBucket = new int[BUCKETS];
+        int total;
+        int ownedCount;
+        long value;
+
+        SetState(String code, int catalogSize) {
+            this.code = code;
+            this.members = new BitSet(catalogSize);
+            this.owned = new BitSet(catalogSize);
+        }
+    }
+
+    public CollectionState(List<CardData> catalog, SetIndex setIndex) {
+        int n = catalog.size();
+        this.setIndex = setIndex;
+        this.quantities = new int[n];
+        this.owned = new BitSet(n);
+        this.setOf = new int[n];
+        this.bucketOf = new byte[n];
+        this.setsByOrdinal = new SetState[setIndex.setCount()];
+        this.prices = new int[n];
+
+        int ordinal = 0;
+        for (String code : setIndex.codes()) {
+            SetState set = new SetState(code, n);
+            for (int position : setIndex.cards(code)) {
+                int bucket = RarityBucket.of(catalog.get(position)).ordinal();
+                set.members.set(position);
+                set.totalByBucket[bucket]++;
+                set.total++;
+                setOf[position] = ordinal;
+                bucketOf[position] = (byte) bucket;
+            }
+            sets.put(code, set);
+            setsByOrdinal[ordinal++] = set;
+        }
+    }
+
+    /**
+     * Replaces every quantity, e.g. with the saved collection at startup.
+     */
+    public void load(int[] loaded) {
+        for (int position = 0; position < quantities.length; position++) {
+            setQuantity(position, position < loaded.length ? loaded[position] : 0);
+        }
+    }
+
+    public int quantity(int position) {
+        return quantities[position];
+    }
+
+    public void setQuantity(int position, int quantity) {
+        int previous = quantities[position];
+        if (previous == quantity) {
+            return;
+        }
+        quantities[position] = quantity;
+        modCount++;
+        SetState set = setsByOrdinal[setOf[position]];
+        long valueDelta = (long) (quantity - previous) * prices[position];
+        value += valueDelta;
+        set.value += valueDelta;
+        if ((previous > 0) == (quantity > 0)) {
+            return;
+        }
+        int delta = quantity > 0 ? 1 : -1;
+        owned.set(position, quantity > 0);
+        set.owned.set(position, quantity > 0);
+        set.ownedCount += delta;
+        set.ownedByBucket[bucketOf[position]] += delta;
+    }
+
+    public void increment(int position) {
+        setQuantity(position, quantities[position] + 1);
+    }
+
+    public void reset(int position) {
+        setQuantity(position, 0);
+    }
+
+    /**
+     * Prices the collection; the value totals are summed once here and then follow every
+     * quantity change.
+     */
+    public void setPrices(PriceTable table) {
+        prices = table.cents();
+        value = 0;
+        for (SetState set : setsByOrdinal) {
+            set.value = 0;
+        }
+        for (int position = 0; position < quantities.length; position++) {
+            long cardValue = (long) quantities[position] * prices[position];
+            value += cardValue;
+            setsByOrdinal[setOf[position]].value += cardValue;
+        }
+    }
+
+    /** Price of one copy, in cents. */
+    public int price(int position) {
+        return prices[position];
+    }
+
+    /** Market value of every copy owned, in cents. */
+    public long value() {
+        return value;
+    }
+
+    /** Market value of the copies owned from one set, in cents. */
+    public long value(String setCode) {
+        SetState set = sets.get(setCode);
+        return set == null ? 0 : set.value;
+    }
+
+    /**
+     * Zeroes every card of the set.
+     */
+    public void resetSet(String setCode) {
+        for (int position : setIndex.cards(setCode)) {
+            setQuantity(position, 0);
+        }
+    }
+
+    public boolean isOwned(int position) {
+        return quantities[position] > 0;
+    }
+
+    /**
+     * Positions of every owned card. A copy; changing it does not affect the collection.
+     */
+    public BitSet owned() {
+        return (BitSet) owned.clone();
+    }
+
+    /**
+     * Positions of the set's cards that are not owned. A copy.
+     */
+    public BitSet missing(String setCode) {
+        SetState set = sets.get(setCode);
+        if (set == null) return new BitSet();
+        BitSet missing = (BitSet) set.members.clone();
+        missing.andNot(set.owned);
+        return missing;
+    }
+
+    /**
+     * The given positions minus the owned ones.
+     */
+    public BitSet missingAmong(BitSet positions) {
+        BitSet missing = (BitSet) positions.clone();
+        missing.andNot(owned);
+        return missing;
+    }
+
+    public Completion completion(String setCode) {
+        SetState set = sets.get(setCode);
+        if (set == null) {
+            return new Completion(setCode, 0, 0, new int[BUCKETS], new int[BUCKETS]);
+        }
+        return new Completion(set.code, set.ownedCount, set.total,
+                set.ownedByBucket.clone(), set.totalByBucket.clone());
+    }
+
+    /**
+     * Quantity per catalog position. A copy.
+     */
+    public int[] quantities() {
+        return Arrays.copyOf(quantities, quantities.length);
+    }
+
+    /**
+     * Number of quantity changes made so far; compare two readings to see whether anything
+     * needs saving.
+     */
+    public long modCount() {
+        return modCount;
+    }
+
+    public int size() {
+        return quantities.length;
+    }
+}
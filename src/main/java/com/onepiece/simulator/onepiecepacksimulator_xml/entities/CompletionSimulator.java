@@ -0,0 +1,141 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Monte-Carlo estimate of how many packs it takes to finish a set, or a subset of it,
+ * starting from a saved collection. Run it with the CLI's "simulate" command.
+ *
+ * Each simulated collector keeps the target cards it still needs in a bitset and opens packs
+ * until the bitset is empty. Collectors are simulated in fixed-size chunks on the common
+ * fork/join pool; every chunk has its own {@link PackGenerator} fork seeded from the chunk
+ * number, so a run is reproducible for a given seed regardless of the number of cores.
+ */
+public final class CompletionSimulator {
+
+    private static final int CHUNK = 1024;
+
+    /** Rarity buckets counted as "SR+" hits. */
+    public static final Set<RarityBucket> SR_PLUS =
+            EnumSet.of(RarityBucket.SUPER_RARE, RarityBucket.SECRET_RARE, RarityBucket.ALT_ART);
+
+    private final List<CardData> catalog;
+    private final SetIndex setIndex;
+    private final PackGenerator packGenerator;
+
+    public CompletionSimulator(List<CardData> catalog, SetIndex setIndex, PackGenerator packGenerator) {
+        this.catalog = catalog;
+        this.setIndex = setIndex;
+        this.packGenerator = packGenerator;
+    }
+
+    /**
+     * Packs needed per simulated collector, sorted ascending.
+     */
+    public record Result(String setCode, int targetCards, int alreadyOwned, int[] packsNeeded, int cappedCollectors) {
+
+        public int percentile(double p) {
+            if (packsNeeded.length == 0) return 0;
+            int rank = (int) Math.ceil(p / 100.0 * packsNeeded.length) - 1;
+            return packsNeeded[Math.max(0, Math.min(rank, packsNeeded.length - 1))];
+        }
+
+        public double mean() {
+            long sum = 0;
+            for (int packs : packsNeeded) sum += packs;
+            return packsNeeded.length == 0 ? 0 : (double) sum / packsNeeded.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d target cards (%d owned), %d collectors%n"
+                            + "  mean %.1f  p50 %d  p90 %d  p95 %d  p99 %d  max %d packs%s",
+                    setCode, targetCards, alreadyOwned, packsNeeded.length, mean(),
+                    percentile(50), percentile(90), percentile(95), percentile(99), percentile(100),
+                    cappedCollectors > 0 ? "\n  " + cappedCollectors + " collectors hit the pack limit" : "");
+        }
+    }
+
+    /**
+     * @param setCode Set to open packs of.
+     * @param target Which of the set's cards have to be collected.
+     * @param owned Quantity owned per catalog position; owned target cards are not needed again.
+     * @param collectors Number of independent collectors to simulate.
+     * @param maxPacks A collector stops after this many packs even if incomplete.
+     * @param seed Base seed for the whole run.
+     */
+    public Result simulate(String setCode, Predicate<CardData> target, int[] owned,
+                           int collectors, int maxPacks, long seed) {
+        // Catalog position -> bit in the per-collector "still needed" set, or -1.
+        int[] bitOf = new int[catalog.size()];
+        Arrays.fill(bitOf, -1);
+        int targetCards = 0, alreadyOwned = 0;
+        long[] initialNeeded = new long[0];
+        for (int position : setIndex.cards(setCode)) {
+            if (!target.test(catalog.get(position))) continue;
+            int bit = targetCards++;
+            bitOf[position] = bit;
+            if (bit / 64 >= initialNeeded.length) initialNeeded = Arrays.copyOf(initialNeeded, bit / 64 + 1);
+            if (owned != null && owned[position] > 0) {
+                alreadyOwned++;
+            } else {
+                initialNeeded[bit / 64] |= 1L << bit;
+            }
+        }
+        int packSize = packGenerator.packSize(setCode);
+        if (packSize == 0 || targetCards == 0) {
+            return new Result(setCode, targetCards, alreadyOwned, new int[0], 0);
+        }
+
+        final long[] start = initialNeeded;
+        final int missing = targetCards - alreadyOwned;
+        int[] packsNeeded = new int[collectors];
+        int chunks = (collectors + CHUNK - 1) / CHUNK;
+        int capped = IntStream.range(0, chunks).parallel().map(chunk -> {
+            PackGenerator generator = packGenerator.fork(new SplittableRandom(seed + chunk).nextLong());
+            int[] pack = new int[packSize];
+            long[] needed = new long[start.length];
+            int cappedInChunk = 0;
+            int end = Math.min(collectors, (chunk + 1) * CHUNK);
+            for (int c = chunk * CHUNK; c < end; c++) {
+                System.arraycopy(start, 0, needed, 0, start.length);
+                int remaining = missing;
+                int packs = 0;
+                while (remaining > 0 && packs < maxPacks) {
+                    generator.openPacks(setCode, 1, pack, 0);
+                    packs++;
+                    for (int position : pack) {
+                        int bit = bitOf[position];
+                        if (bit >= 0) {
+                            long mask = 1L << bit;
+                            if ((needed[bit >>> 6] & mask) != 0) {
+                                needed[bit >>> 6] &= ~mask;
+                                remaining--;
+                            }
+                        }
+                    }
+                }
+                if (remaining > 0) cappedInChunk++;
+                packsNeeded[c] = packs;
+            }
+            return cappedInChunk;
+        }).sum();
+
+        Arrays.parallelSort(packsNeeded);
+        return new Result(setCode, targetCards, alreadyOwned, packsNeeded, capped);
+    }
+
+    public static Predicate<CardData> allCards() {
+        return card -> true;
+    }
+
+    public static Predicate<CardData> buckets(Set<RarityBucket> buckets) {
+        return card -> buckets.contains(RarityBucket.of(card));
+    }
+}
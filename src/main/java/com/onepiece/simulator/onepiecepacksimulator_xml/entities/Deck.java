@@ -0,0 +1,261 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A deck being built: a leader plus copies per card (by {@link DeckRules} ordinal), with its
+ * validation state and curves kept up to date as cards are added and removed.
+ *
+ * Every add or remove changes a fixed number of counters: copies of the card, the deck size,
+ * the color, counter, power and kind histograms, the count of cards per exact color mask,
+ * the number of cards over the copy limit, leaders in the main deck and, when owned copies
+ * are attached, the copies still missing. The off-color check is a pass over the 64 color
+ * masks, so changing the leader does not rescan the deck either.
+ *
+ * Not thread-safe; used on the FX thread like CollectionState.
+ */
+public final class Deck {
+
+    private static final int MASKS = 1 << DeckRules.COLORS.size();
+
+    private final DeckRules rules;
+    private String name;
+    private int leader = -1;
+    private final int[] copies;
+    private int size;
+    private int distinct;
+
+    private final int[] byColor = new int[DeckRules.COLORS.size()];
+    private final int[] byColorMask = new int[MASKS];
+    private final int[] byCounter = new int[DeckRules.COUNTER_BUCKETS];
+    private final int[] byPower = new int[DeckRules.POWER_BUCKETS];
+    private final int[] byKind = new int[DeckRules.KINDS.size()];
+    private int overLimit; // Cards with more than MAX_COPIES copies
+    private int leadersInMain;
+
+    private int[] owned; // Owned copies by ordinal, null when not checked
+    private int missing;
+
+    public Deck(DeckRules rules, String name) {
+        this.rules = rules;
+        this.name = name;
+        this.copies = new int[rules.size()];
+    }
+
+    /**
+     * A deck with the list's leader and cards.
+     */
+    public static Deck of(DeckRules rules, DeckList list) {
+        Deck deck = new Deck(rules, list.name());
+        deck.setLeader(list.leader());
+        for (int i = 0; i < list.ordinals().length; i++) {
+            deck.add(list.ordinals()[i], list.counts()[i]);
+        }
+        return deck;
+    }
+
+    public void add(int ordinal) {
+        add(ordinal, 1);
+    }
+
+    public void add(int ordinal, int n) {
+        if (n <= 0) return;
+        int before = copies[ordinal];
+        change(ordinal, before, before + n);
+    }
+
+    /**
+     * Removes one copy.
+     * @return false if the deck had none.
+     */
+    public boolean remove(int ordinal) {
+        int before = copies[ordinal];
+        if (before == 0) return false;
+        change(ordinal, before, before - 1);
+        return true;
+    }
+
+    /**
+     * @param ordinal The new leader, or -1 for none.
+     */
+    public void setLeader(int ordinal) {
+        if (owned != null) {
+            missing -= leaderMissing();
+        }
+        leader = ordinal;
+        if (owned != null) {
+            missing += leaderMissing();
+        }
+    }
+
+    /**
+     * Checks the deck against owned copies (from {@link DeckRules#ownedCopies}) from now on;
+     * null stops checking. Call again after the collection changes.
+     */
+    public void setOwned(int[] ownedCopies) {
+        owned = ownedCopies;
+        missing = 0;
+        if (owned == null) return;
+        for (int ordinal = 0; ordinal < copies.length; ordinal++) {
+            missing += Math.max(0, copies[ordinal] - owned[ordinal]);
+        }
+        missing += leaderMissing();
+    }
+
+    private void change(int ordinal, int before, int after) {
+        int delta = after - before;
+        copies[ordinal] = after;
+        size += delta;
+        if (before == 0) distinct++;
+        if (after == 0) distinct--;
+
+        int mask = rules.colorMaskOf(ordinal);
+        byColorMask[mask] += delta;
+        for (int color = 0; color < byColor.length; color++) {
+            if ((mask & 1 << color) != 0) {
+                byColor[color] += delta;
+            }
+        }
+        byCounter[rules.counterBucketOf(ordinal)] += delta;
+        byPower[rules.powerBucketOf(ordinal)] += delta;
+        byKind[rules.kindOf(ordinal)] += delta;
+        if (rules.isLeader(ordinal)) {
+            leadersInMain += delta;
+        }
+        if (before <= DeckRules.MAX_COPIES && after > DeckRules.MAX_COPIES) overLimit++;
+        if (before > DeckRules.MAX_COPIES && after <= DeckRules.MAX_COPIES) overLimit--;
+        if (owned != null) {
+            int have = owned[ordinal] - (ordinal == leader ? 1 : 0);
+            missing += Math.max(0, after - have) - Math.max(0, before - have);
+        }
+    }
+
+    private int leaderMissing() {
+        if (leader < 0) return 0;
+        // The leader and main-deck copies of the same card share the owned copies.
+        int have = owned[leader];
+        int needed = copies[leader] + 1;
+        return Math.max(0, needed - have) - Math.max(0, copies[leader] - have);
+    }
+
+    /**
+     * Cards whose colors share none of the leader's. 0 without a leader.
+     */
+    public int offColorCount() {
+        if (leader < 0) return 0;
+        int leaderMask = rules.colorMaskOf(leader);
+        int off = 0;
+        for (int mask = 0; mask < MASKS; mask++) {
+            if ((mask & leaderMask) == 0) {
+                off += byColorMask[mask];
+            }
+        }
+        return off;
+    }
+
+    /**
+     * Every broken deck-building rule, in words; empty for a legal deck. Ownership is not a
+     * rule; see {@link #missingCopies()}.
+     */
+    public List<String> problems() {
+        List<String> problems = new ArrayList<>();
+        if (leader < 0) {
+            problems.add("No leader");
+        } else if (!rules.isLeader(leader)) {
+            problems.add(rules.id(leader) + " is not a leader");
+        }
+        if (size != DeckRules.DECK_SIZE) {
+            problems.add(size + "/" + DeckRules.DECK_SIZE + " cards");
+        }
+        if (overLimit > 0) {
+            problems.add(overLimit + (overLimit == 1 ? " card has" : " cards have") + " more than "
+                    + DeckRules.MAX_COPIES + " copies");
+        }
+        if (leadersInMain > 0) {
+            problems.add(leadersInMain + (leadersInMain == 1 ? " leader" : " leaders") + " in the main deck");
+        }
+        int offColor = offColorCount();
+        if (offColor > 0) {
+            problems.add(offColor + (offColor == 1 ? " card does" : " cards do") + " not match the leader's color");
+        }
+        return problems;
+    }
+
+    public boolean isLegal() {
+        return leader >= 0 && rules.isLeader(leader) && size == DeckRules.DECK_SIZE && overLimit == 0
+                && leadersInMain == 0 && offColorCount() == 0;
+    }
+
+    /**
+     * Copies (leader included) the collection does not have; 0 when not checking ownership.
+     */
+    public int missingCopies() {
+        return missing;
+    }
+
+    /**
+     * The deck as a list, cards in ordinal order.
+     */
+    public DeckList toList() {
+        return DeckList.of(name, leader, copies);
+    }
+
+    public void clear() {
+        for (int ordinal = 0; ordinal < copies.length; ordinal++) {
+            if (copies[ordinal] > 0) {
+                change(ordinal, copies[ordinal], 0);
+            }
+        }
+        setLeader(-1);
+    }
+
+    public DeckRules rules() {
+        return rules;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int leader() {
+        return leader;
+    }
+
+    public int copies(int ordinal) {
+        return copies[ordinal];
+    }
+
+    /** Main deck size, leader not included. */
+    public int size() {
+        return size;
+    }
+
+    public int distinct() {
+        return distinct;
+    }
+
+    /** Cards per color, indexed like {@link DeckRules#COLORS}; multicolor cards count in each. */
+    public int[] colorCurve() {
+        return byColor.clone();
+    }
+
+    /** Cards per counter value, see {@link DeckRules#COUNTER_BUCKETS}. */
+    public int[] counterCurve() {
+        return byCounter.clone();
+    }
+
+    /** Cards per 1000 power, see {@link DeckRules#POWER_BUCKETS}. */
+    public int[] powerCurve() {
+        return byPower.clone();
+    }
+
+    /** Cards per kind, indexed like {@link DeckRules#KINDS}. */
+    public int[] kindCounts() {
+        return byKind.clone();
+    }
+}
@@ -0,0 +1,73 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+/**
+ * A saved deck in compact form: the leader and parallel arrays of card ordinals
+ * ({@link DeckRules}) and copy counts. Checking it against a collection is one array lookup
+ * per distinct card, so many saved decks can be checked at once.
+ *
+ * @param leader Leader ordinal, or -1 for none.
+ */
+public record DeckList(String name, int leader, int[] ordinals, int[] counts) {
+
+    /**
+     * @param copies Copies per ordinal; only the cards with copies are kept, in ordinal order.
+     */
+    public static DeckList of(String name, int leader, int[] copies) {
+        int distinct = 0;
+        for (int count : copies) {
+            if (count > 0) distinct++;
+        }
+        int[] ordinals = new int[distinct];
+        int[] counts = new int[distinct];
+        int i = 0;
+        for (int ordinal = 0; ordinal < copies.length && i < distinct; ordinal++) {
+            if (copies[ordinal] > 0) {
+                ordinals[i] = ordinal;
+                counts[i++] = copies[ordinal];
+            }
+        }
+        return new DeckList(name, leader, ordinals, counts);
+    }
+
+    public int size() {
+        int size = 0;
+        for (int count : counts) {
+            size += count;
+        }
+        return size;
+    }
+
+    /**
+     * Whether every card (leader included) is owned in enough copies.
+     * @param owned Owned copies by ordinal, from {@link DeckRules#ownedCopies}.
+     */
+    public boolean isBuildable(int[] owned) {
+        for (int i = 0; i < ordinals.length; i++) {
+            int needed = counts[i] + (ordinals[i] == leader ? 1 : 0);
+            if (owned[ordinals[i]] < needed) {
+                return false;
+            }
+        }
+        return leader < 0 || owned[leader] >= 1;
+    }
+
+    /**
+     * Copies (leader included) the collection lacks to build the deck.
+     */
+    public int missingCopies(int[] owned) {
+        int missing = 0;
+        boolean leaderCounted = false;
+        for (int i = 0; i < ordinals.length; i++) {
+            int needed = counts[i];
+            if (ordinals[i] == leader) {
+                needed++;
+                leaderCounted = true;
+            }
+            missing += Math.max(0, needed - owned[ordinals[i]]);
+        }
+        if (leader >= 0 && !leaderCounted && owned[leader] < 1) {
+            missing++;
+        }
+        return missing;
+    }
+}
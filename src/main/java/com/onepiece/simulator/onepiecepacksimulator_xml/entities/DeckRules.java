@@ -0,0 +1,162 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What deck building needs to know about the catalog, computed once.
+ *
+ * Decks count copies by card ID, not by printing: an alternate art is the same card for the
+ * 4-copy limit and for ownership. Every distinct ID gets a dense ordinal, and its color
+ * (as a bitmask over {@link #COLORS}), card kind, power and counter are kept in arrays by
+ * ordinal, so a {@link Deck} can update its figures with array lookups only.
+ */
+public final class DeckRules {
+
+    public static final int DECK_SIZE = 50;
+    public static final int MAX_COPIES = 4;
+
+    public static final List<String> COLORS = List.of("Red", "Green", "Blue", "Purple", "Black", "Yellow");
+    public static final List<String> KINDS = List.of("LEADER", "CHARACTER", "EVENT", "STAGE", "OTHER");
+    public static final int LEADER = 0;
+    /** A type this code does not know, e.g. one added by a catalog patch; never a leader. */
+    public static final int OTHER = 4;
+
+    /** Counter curve buckets: 0, 1000, 2000+. */
+    public static final int COUNTER_BUCKETS = 3;
+    /** Power curve buckets: one per 1000, the last holding 13000 and up. */
+    public static final int POWER_BUCKETS = 14;
+
+    private final int[] ordinalOf;
+    private final String[] ids;
+    private final int[] printing;
+    private final byte[] colorMask;
+    private final byte[] kind;
+    private final byte[] counterBucket;
+    private final byte[] powerBucket;
+    private final Map<String, Integer> ordinalById;
+
+    private DeckRules(int[] ordinalOf, String[] ids, int[] printing, byte[] colorMask, byte[] kind,
+                      byte[] counterBucket, byte[] powerBucket, Map<String, Integer> ordinalById) {
+        this.ordinalOf = ordinalOf;
+        this.ids = ids;
+        this.printing = printing;
+        this.colorMask = colorMask;
+        this.kind = kind;
+        this.counterBucket = counterBucket;
+        this.powerBucket = powerBucket;
+        this.ordinalById = ordinalById;
+    }
+
+    public static DeckRules build(List<CardData> catalog) {
+        Map<String, Integer> ordinalById = new HashMap<>();
+        int[] ordinalOf = new int[catalog.size()];
+        for (int position = 0; position < catalog.size(); position++) {
+            ordinalOf[position] = ordinalById.computeIfAbsent(catalog.get(position).id(), id -> ordinalById.size());
+        }
+        int count = ordinalById.size();
+        String[] ids = new String[count];
+        int[] printing = new int[count];
+        byte[] colorMask = new byte[count];
+        byte[] kind = new byte[count];
+        byte[] counterBucket = new byte[count];
+        byte[] powerBucket = new byte[count];
+        for (int position = catalog.size() - 1; position >= 0; position--) {
+            // Walking backwards leaves each ID with its first printing, preferring a regular one.
+            CardData card = catalog.get(position);
+            int ordinal = ordinalOf[position];
+            if (ids[ordinal] != null && card.alternateArt() && !catalog.get(printing[ordinal]).alternateArt()) {
+                continue;
+            }
+            ids[ordinal] = card.id();
+            printing[ordinal] = position;
+            colorMask[ordinal] = (byte) colorMask(card.color());
+            kind[ordinal] = (byte) kindOf(card.type());
+            counterBucket[ordinal] = (byte) Math.min(COUNTER_BUCKETS - 1, Math.max(0, card.counter() / 1000));
+            powerBucket[ordinal] = (byte) Math.min(POWER_BUCKETS - 1, Math.max(0, card.power() / 1000));
+        }
+        return new DeckRules(ordinalOf, ids, printing, colorMask, kind, counterBucket, powerBucket, ordinalById);
+    }
+
+    /**
+     * Index into {@link #KINDS} for a card type, ignoring case; {@link #OTHER} if unknown.
+     */
+    public static int kindOf(String type) {
+        int kind = KINDS.indexOf(type.trim().toUpperCase(Locale.ROOT));
+        return kind < 0 ? OTHER : kind;
+    }
+
+    /**
+     * Bitmask over {@link #COLORS} for a color such as "Red/Green"; 0 if none is recognised.
+     */
+    public static int colorMask(String color) {
+        int mask = 0;
+        for (String part : color.split("/")) {
+            int index = COLORS.indexOf(part.trim());
+            if (index >= 0) {
+                mask |= 1 << index;
+            }
+        }
+        return mask;
+    }
+
+    /** Number of distinct card IDs. */
+    public int size() {
+        return ids.length;
+    }
+
+    /** The ordinal of a card ID, or -1 if the catalog has no such card. */
+    public int ordinal(String id) {
+        Integer ordinal = ordinalById.get(id);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public int ordinalOf(int position) {
+        return ordinalOf[position];
+    }
+
+    public String id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    /** The catalog position shown for the card: its first regular printing. */
+    public int printing(int ordinal) {
+        return printing[ordinal];
+    }
+
+    public int colorMaskOf(int ordinal) {
+        return colorMask[ordinal];
+    }
+
+    /** Index into {@link #KINDS}. */
+    public int kindOf(int ordinal) {
+        return kind[ordinal];
+    }
+
+    public boolean isLeader(int ordinal) {
+        return kind[ordinal] == LEADER;
+    }
+
+    public int counterBucketOf(int ordinal) {
+        return counterBucket[ordinal];
+    }
+
+    public int powerBucketOf(int ordinal) {
+        return powerBucket[ordinal];
+    }
+
+    /**
+     * Copies owned per ordinal, adding up every printing of the card.
+     */
+    public int[] ownedCopies(CollectionState collection) {
+        int[] owned = new int[ids.length];
+        BitSet positions = collection.owned();
+        for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+            owned[ordinalOf[position]] += collection.quantity(position);
+        }
+        return owned;
+    }
+}
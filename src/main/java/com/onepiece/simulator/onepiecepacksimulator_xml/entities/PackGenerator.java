@@ -0,0 +1,255 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Counter;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates pack contents as catalog positions, without JavaFX.
+ *
+ * Each set's cards are split into rarity buckets once, and each slot of the set's
+ * {@link PackTemplate} gets an alias table over the buckets the set actually has, so a draw
+ * is O(1). A card is not repeated within a pack unless its bucket is too small to avoid it.
+ * Starter decks (ST-xx) always contain their whole list.
+ *
+ * A generator is not thread-safe. Use {@link #fork(long)} to get one per thread; forks share
+ * the precomputed tables.
+ */
+public final class PackGenerator {
+
+    // Redraws allowed before a duplicate within one pack is accepted.
+    private static final int MAX_REDRAWS = 8;
+
+    private static final Counter PACKS_OPENED = Metrics.counter("pack.opened");
+    private static final LatencyHistogram GENERATE = Metrics.histogram("pack.generate");
+
+    private final List<CardData> catalog;
+    private final SetIndex setIndex;
+    private final Map<String, PackTemplate> templates;
+    private final PackTemplate defaultTemplate;
+    private final Map<String, SetTables> tables;
+    private final SplittableRandom random;
+
+    public PackGenerator(List<CardData> catalog, SetIndex setIndex, long seed) {
+        this(catalog, setIndex, new ConcurrentHashMap<>(), PackTemplate.standardBooster(),
+                new ConcurrentHashMap<>(), new SplittableRandom(seed));
+    }
+
+    /**
+     * Uses a seed from the system clock; results will differ between runs.
+     */
+    public PackGenerator(List<CardData> catalog, SetIndex setIndex) {
+        this(catalog, setIndex, System.nanoTime());
+    }
+
+    private PackGenerator(List<CardData> catalog, SetIndex setIndex, Map<String, PackTemplate> templates,
+                          PackTemplate defaultTemplate, Map<String, SetTables> tables, SplittableRandom random) {
+        this.catalog = catalog;
+        this.setIndex = setIndex;
+        this.templates = templates;
+        this.defaultTemplate = defaultTemplate;
+        this.tables = tables;
+        this.random = random;
+    }
+
+    /**
+     * A generator with its own random stream that shares this one's templates and tables.
+     */
+    public PackGenerator fork(long seed) {
+        return new PackGenerator(catalog, setIndex, templates, defaultTemplate, tables, new SplittableRandom(seed));
+    }
+
+    /**
+     * Overrides the slot template for one set. Call before generating packs for that set.
+     */
+    public PackGenerator setTemplate(String setCode, PackTemplate template) {
+        templates.put(setCode, template);
+        tables.remove(setCode);
+        return this;
+    }
+
+    public static boolean isStarterDeck(String setCode) {
+        return setCode.startsWith("ST-");
+    }
+
+    /**
+     * Cards per pack for the set: its template size, or the whole list for a starter deck.
+     * 0 if the set has no cards.
+     */
+    public int packSize(String setCode) {
+        return tablesFor(setCode).packSize;
+    }
+
+    public int[] openPack(String setCode) {
+        return openPacks(setCode, 1);
+    }
+
+    /**
+     * Opens n packs of a set.
+     * @return Catalog positions, packSize(setCode) per pack, pack after pack.
+     */
+    public int[] openPacks(String setCode, int n) {
+        long start = Metrics.now();
+        SetTables t = tablesFor(setCode);
+        int[] out = new int[t.packSize * n];
+        openPacks(setCode, n, out, 0);
+        GENERATE.recordSince(start);
+        return out;
+    }
+
+    /**
+     * Allocation-free variant of {@link #openPacks(String, int)} for large simulations.
+     * Writes n * packSize(setCode) positions into out starting at offset. Simulations call
+     * this once per pack, so it only counts packs and leaves timing to the callers above it.
+     */
+    public void openPacks(String setCode, int n, int[] out, int offset) {
+        SetTables t = tablesFor(setCode);
+        for (int p = 0; p < n; p++) {
+            int start = offset + p * t.packSize;
+            if (t.starterDeck) {
+                System.arraycopy(t.all, 0, out, start, t.packSize);
+            } else {
+                fillBooster(t, out, start);
+            }
+        }
+        PACKS_OPENED.add(n);
+    }
+
+    /**
+     * Expected cards of each rarity bucket in one pack of the set, indexed by
+     * {@link RarityBucket#ordinal()}, from the set's template and the buckets it has.
+     */
+    public double[] expectedPerPack(String setCode) {
+        SetTables t = tablesFor(setCode);
+        double[] expected = new double[RarityBucket.values().length];
+        for (double[] slot : t.slotBucketOdds) {
+            for (int b = 0; b < expected.length; b++) {
+                expected[b] += slot[b];
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Chance that one pack of the set has at least one card from the buckets.
+     */
+    public double hitChance(String setCode, Set<RarityBucket> buckets) {
+        double none = 1;
+        for (double[] slot : tablesFor(setCode).slotBucketOdds) {
+            double hit = 0;
+            for (RarityBucket bucket : buckets) {
+                hit += slot[bucket.ordinal()];
+            }
+            none *= 1 - Math.min(1, hit);
+        }
+        return 1 - none;
+    }
+
+    /**
+     * Looks the positions up in the catalog list they refer to.
+     */
+    public static <T> List<T> cardsAt(int[] positions, List<T> catalog) {
+        List<T> cards = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            cards.add(catalog.get(position));
+        }
+        return cards;
+    }
+
+    private void fillBooster(SetTables t, int[] out, int start) {
+        for (int s = 0; s < t.packSize; s++) {
+            int[] bucket = t.slotBuckets[s][t.slotOdds[s].sample(random)];
+            int card = bucket[random.nextInt(bucket.length)];
+            for (int tries = 0; tries < MAX_REDRAWS && contains(out, start, start + s, card); tries++) {
+                card = bucket[random.nextInt(bucket.length)];
+            }
+            out[start + s] = card;
+        }
+    }
+
+    private static boolean contains(int[] values, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private SetTables tablesFor(String setCode) {
+        return tables.computeIfAbsent(setCode, code ->
+                new SetTables(code, setIndex.cards(code), templates.getOrDefault(code, defaultTemplate)));
+    }
+
+    /**
+     * Per-set draw tables. Immutable once built, so forks can share them.
+     */
+    private final class SetTables {
+        final boolean starterDeck;
+        final int packSize;
+        final int[] all;
+        final AliasTable[] slotOdds;
+        final int[][][] slotBuckets; // [slot][alias outcome] -> card positions
+        final double[][] slotBucketOdds; // [slot][bucket ordinal] -> chance of that bucket
+
+        SetTables(String setCode, int[] positions, PackTemplate template) {
+            this.all = positions;
+            this.starterDeck = isStarterDeck(setCode);
+
+            Map<RarityBucket, List<Integer>> grouped = new EnumMap<>(RarityBucket.class);
+            for (int position : positions) {
+                grouped.computeIfAbsent(RarityBucket.of(catalog.get(position)), b -> new ArrayList<>()).add(position);
+            }
+            Map<RarityBucket, int[]> buckets = new EnumMap<>(RarityBucket.class);
+            grouped.forEach((bucket, cards) -> buckets.put(bucket, cards.stream().mapToInt(Integer::intValue).toArray()));
+
+            if (starterDeck || positions.length == 0) {
+                packSize = starterDeck ? positions.length : 0;
+                slotOdds = new AliasTable[0];
+                slotBuckets = new int[0][][];
+                // A starter deck is its whole list, one card per "slot".
+                slotBucketOdds = new double[packSize][RarityBucket.values().length];
+                for (int s = 0; s < packSize; s++) {
+                    slotBucketOdds[s][RarityBucket.of(catalog.get(positions[s])).ordinal()] = 1;
+                }
+                return;
+            }
+
+            packSize = template.size();
+            slotOdds = new AliasTable[packSize];
+            slotBuckets = new int[packSize][][];
+            slotBucketOdds = new double[packSize][RarityBucket.values().length];
+            for (int s = 0; s < packSize; s++) {
+                List<int[]> outcomes = new ArrayList<>();
+                List<Double> weights = new ArrayList<>();
+                for (Map.Entry<RarityBucket, Double> odds : template.slot(s).entrySet()) {
+                    int[] cards = buckets.get(odds.getKey());
+                    if (cards != null && odds.getValue() > 0) {
+                        outcomes.add(cards);
+                        weights.add(odds.getValue());
+                    }
+                }
+                if (outcomes.isEmpty()) {
+                    // None of the slot's rarities exist in this set: draw from the whole set.
+                    outcomes.add(positions);
+                    weights.add(1.0);
+                }
+                slotBuckets[s] = outcomes.toArray(new int[0][]);
+                slotOdds[s] = new AliasTable(weights.stream().mapToDouble(Double::doubleValue).toArray());
+                double totalWeight = weights.stream().mapToDouble(Double::doubleValue).sum();
+                for (int o = 0; o < outcomes.size(); o++) {
+                    int[] cards = outcomes.get(o);
+                    for (int card : cards) {
+                        slotBucketOdds[s][RarityBucket.of(catalog.get(card)).ordinal()] += weights.get(o) / totalWeight / cards.length;
+                    }
+                }
+            }
+        }
+    }
+}
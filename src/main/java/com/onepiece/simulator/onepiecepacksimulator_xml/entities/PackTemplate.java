@@ -0,0 +1,56 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The slots of a booster pack and, for each slot, the odds of each rarity bucket.
+ * Odds are relative weights; a slot whose buckets are missing from a set is renormalised
+ * over the buckets the set does have.
+ */
+public final class PackTemplate {
+
+    private final List<Map<RarityBucket, Double>> slots;
+
+    public PackTemplate(List<Map<RarityBucket, Double>> slots) {
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("A pack needs at least one slot");
+        }
+        List<Map<RarityBucket, Double>> copy = new ArrayList<>(slots.size());
+        for (Map<RarityBucket, Double> slot : slots) {
+            copy.add(Collections.unmodifiableMap(new EnumMap<>(slot)));
+        }
+        this.slots = Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * A 12-card booster: 7 commons, 3 uncommons, a rare-or-leader slot and a hit slot that
+     * is usually a rare and can be a super rare, secret rare or alternate art.
+     */
+    public static PackTemplate standardBooster() {
+        List<Map<RarityBucket, Double>> slots = new ArrayList<>();
+        for (int i = 0; i < 7; i++) slots.add(Map.of(RarityBucket.COMMON, 1.0));
+        for (int i = 0; i < 3; i++) slots.add(Map.of(RarityBucket.UNCOMMON, 1.0));
+        slots.add(Map.of(RarityBucket.RARE, 0.80, RarityBucket.LEADER, 0.20));
+        slots.add(Map.of(
+                RarityBucket.RARE, 0.55,
+                RarityBucket.SUPER_RARE, 0.30,
+                RarityBucket.ALT_ART, 0.12,
+                RarityBucket.SECRET_RARE, 0.03));
+        return new PackTemplate(slots);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Bucket -> relative odds for the given slot.
+     */
+    public Map<RarityBucket, Double> slot(int index) {
+        return slots.get(index);
+    }
+}
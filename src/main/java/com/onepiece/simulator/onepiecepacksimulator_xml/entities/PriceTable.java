@@ -0,0 +1,272 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Market prices for the catalog, in whole cents per catalog position.
+ *
+ * Prices come from a local snapshot file, either JSON ({"OP01-001": 0.25, ...}) or CSV with a
+ * key and a price per line (an optional header naming "price" and "id" or "key" picks the
+ * columns; fields may be double-quoted, with "" for a quote inside one). A key is a card ID,
+ * which prices every printing of that card, or a printing key
+ * ({@link CatalogPatch#printingKey}, e.g. "OP01-001_p1"), which prices one printing and wins
+ * over its ID. Cards without a price are worth 0.
+ */
+public final class PriceTable {
+
+    private static final Gson GSON = new Gson();
+
+    private final int[] cents;
+
+    private PriceTable(int[] cents) {
+        this.cents = cents;
+    }
+
+    public static PriceTable empty(int catalogSize) {
+        return new PriceTable(new int[catalogSize]);
+    }
+
+    /**
+     * @param cents Price per catalog position; copied.
+     */
+    public static PriceTable of(int[] cents) {
+        return new PriceTable(cents.clone());
+    }
+
+    /**
+     * Prices by card ID or printing key.
+     *
+     * @throws IllegalArgumentException if a price does not fit in an int of cents
+     */
+    public static PriceTable of(List<CardData> catalog, Map<String, ? extends Number> prices) {
+        String[] keys = CatalogPatch.keys(catalog);
+        int[] cents = new int[catalog.size()];
+        for (int position = 0; position < cents.length; position++) {
+            Number price = prices.get(keys[position]);
+            if (price == null) {
+                price = prices.get(catalog.get(position).id());
+            }
+            if (price != null) {
+                cents[position] = toCents(keys[position], price.toString());
+            }
+        }
+        return new PriceTable(cents);
+    }
+
+    /**
+     * Reads a snapshot file; ".json" files as JSON, anything else as CSV.
+     */
+    public static PriceTable read(Path file, List<CardData> catalog) throws IOException {
+        if (file.getFileName().toString().toLowerCase().endsWith(".json")) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Type type = new TypeToken<Map<String, BigDecimal>>() {}.getType();
+                Map<String, BigDecimal> prices = GSON.fromJson(reader, type);
+                return of(catalog, prices != null ? prices : Map.of());
+            } catch (JsonParseException e) {
+                throw new IOException("not a price file: " + e.getMessage(), e);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return of(catalog, parseCsv(Files.readAllLines(file, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The local snapshot: -Donepiece.priceFile, else prices.csv or prices.json in the data
+     * directory.
+     */
+    public static Path file() {
+        String configured = System.getProperty("onepiece.priceFile");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        Path dataDir = Paths.get(System.getProperty("onepiece.dataDir", ""));
+        Path json = dataDir.resolve("prices.json");
+        return Files.isRegularFile(json) ? json : dataDir.resolve("prices.csv");
+    }
+
+    /**
+     * The local snapshot, or no prices if there is none or it cannot be read.
+     */
+    public static PriceTable load(List<CardData> catalog) {
+        Path file = file();
+        if (!Files.isRegularFile(file)) {
+            return empty(catalog.size());
+        }
+        try {
+            return read(file, catalog);
+        } catch (IOException e) {
+            System.err.println("Error reading prices from " + file + ": " + e.getMessage());
+            return empty(catalog.size());
+        }
+    }
+
+    public int size() {
+        return cents.length;
+    }
+
+    public int cents(int position) {
+        return cents[position];
+    }
+
+    /**
+     * Price per catalog position. A copy.
+     */
+    public int[] cents() {
+        return cents.clone();
+    }
+
+    /**
+     * Total price of the cards, e.g. one pack's pulls.
+     */
+    public long valueOf(int[] positions) {
+        long total = 0;
+        for (int position : positions) {
+            total += cents[position];
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        for (int price : cents) {
+            if (price != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * "$12.34".
+     */
+    public static String format(long cents) {
+        return String.format("%s$%d.%02d", cents < 0 ? "-" : "", Math.abs(cents) / 100, Math.abs(cents) % 100);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PriceTable table && Arrays.equals(cents, table.cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cents);
+    }
+
+    private static Map<String, BigDecimal> parseCsv(List<String> lines) throws IOException {
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        int keyColumn = 0, priceColumn = 1;
+        boolean first = true;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            List<String> split = splitCsv(line);
+            if (split == null) {
+                throw new IOException("bad price line " + (i + 1) + " (unterminated quote): " + line);
+            }
+            String[] fields = split.toArray(new String[0]);
+            if (first && !isNumber(fields[fields.length - 1])) { // Header
+                Map<String, Integer> header = new HashMap<>();
+                for (int column = 0; column < fields.length; column++) {
+                    header.put(fields[column].trim().toLowerCase(), column);
+                }
+                keyColumn = header.getOrDefault("key", header.getOrDefault("id", 0));
+                priceColumn = header.getOrDefault("price", fields.length - 1);
+                first = false;
+                continue;
+            }
+            first = false;
+            if (fields.length <= Math.max(keyColumn, priceColumn) || !isNumber(fields[priceColumn])) {
+                throw new IOException("bad price line " + (i + 1) + ": " + line);
+            }
+            BigDecimal price = new BigDecimal(fields[priceColumn].trim());
+            if (!fitsCents(price)) {
+                throw new IOException("bad price line " + (i + 1) + " (price out of range): " + line);
+            }
+            prices.put(fields[keyColumn].trim(), price);
+        }
+        return prices;
+    }
+
+    /**
+     * Splits one CSV line on commas outside double quotes; a quoted field may hold commas and
+     * "" for a quote. Null if a quote is left open.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isNumber(String field) {
+        try {
+            new BigDecimal(field.trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static BigDecimal centsOf(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+    }
+
+    private static boolean fitsCents(BigDecimal price) {
+        if ((long) price.precision() - price.scale() > 10) return false; // Also keeps centsOf from overflowing the scale
+        BigDecimal cents = centsOf(price);
+        return cents.compareTo(BigDecimal.valueOf(Integer.MIN_VALUE)) >= 0
+                && cents.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) <= 0;
+    }
+
+    private static int toCents(String key, String price) {
+        BigDecimal value;
+        try {
+            value = new BigDecimal(price);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad price for " + key + ": " + price, e);
+        }
+        if (!fitsCents(value)) {
+            throw new IllegalArgumentException("price out of range for " + key + ": " + price);
+        }
+        return centsOf(value).intValueExact();
+    }
+}
@@ -0,0 +1,30 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+/**
+ * The groups a booster slot draws from. Alternate arts, SP cards, promos and other special
+ * printings share one bucket regardless of their printed rarity.
+ */
+public enum RarityBucket {
+    COMMON,
+    UNCOMMON,
+    RARE,
+    SUPER_RARE,
+    SECRET_RARE,
+    LEADER,
+    ALT_ART;
+
+    public static RarityBucket of(CardData card) {
+        if (card.alternateArt()) {
+            return ALT_ART;
+        }
+        return switch (card.rarity()) {
+            case "C" -> COMMON;
+            case "UC" -> UNCOMMON;
+            case "R" -> RARE;
+            case "SR" -> SUPER_RARE;
+            case "SEC" -> SECRET_RARE;
+            case "L" -> LEADER;
+            default -> ALT_ART;
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Which catalog positions belong to which set, built once after loading.
+ *
+ * Sets are keyed by the code in brackets at the end of the series name, e.g. "OP-05" for
+ * "AWAKENING OF THE NEW ERA- [OP-05]". Series without a bracketed code ("Promotion card")
+ * use the whole name as their code. Card positions refer to the list the index was built
+ * from and are in catalog order.
+ */
+public final class SetIndex {
+
+    private static final int[] NO_CARDS = new int[0];
+
+    private final Map<String, int[]> cardsByCode;
+    private final Map<String, String> codeByName;
+    private final Map<String, String> nameByCode;
+    private final List<String> sortedNames;
+
+    private SetIndex(Map<String, int[]> cardsByCode, Map<String, String> codeByName, Map<String, String> nameByCode) {
+        this.cardsByCode = cardsByCode;
+        this.codeByName = codeByName;
+        this.nameByCode = nameByCode;
+        List<String> names = new ArrayList<>(codeByName.keySet());
+        Collections.sort(names);
+        this.sortedNames = Collections.unmodifiableList(names);
+    }
+
+    public static SetIndex build(List<CardData> cards) {
+        // Series names are shared strings, so this map sees one key per set.
+        Map<String, String> codeByName = new HashMap<>();
+        Map<String, String> nameByCode = new LinkedHashMap<>();
+        Map<String, int[]> positions = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+
+        for (CardData card : cards) {
+            String name = card.seriesName();
+            String code = codeByName.computeIfAbsent(name, SetIndex::codeOf);
+            nameByCode.putIfAbsent(code, name);
+            sizes.merge(code, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : sizes.entrySet()) {
+            positions.put(entry.getKey(), new int[entry.getValue()]);
+        }
+        Map<String, Integer> filled = new HashMap<>();
+        for (int i = 0; i < cards.size(); i++) {
+            String code = codeByName.get(cards.get(i).seriesName());
+            int slot = filled.merge(code, 1, Integer::sum) - 1;
+            positions.get(code)[slot] = i;
+        }
+        return new SetIndex(positions, codeByName, nameByCode);
+    }
+
+    /**
+     * The set code inside the trailing brackets of a series name, or the trimmed name itself.
+     */
+    public static String codeOf(String seriesName) {
+        int open = seriesName.lastIndexOf('[');
+        int close = seriesName.lastIndexOf(']');
+        if (open >= 0 && close > open) {
+            return seriesName.substring(open + 1, close).trim();
+        }
+        return seriesName.trim();
+    }
+
+    /**
+     * A series name without its bracketed code, e.g. "AWAKENING OF THE NEW ERA".
+     */
+    public static String titleOf(String seriesName) {
+        int open = seriesName.lastIndexOf('[');
+        String title = open >= 0 ? seriesName.substring(0, open).trim() : seriesName.trim();
+        return title.endsWith("-") ? title.substring(0, title.length() - 1).trim() : title;
+    }
+
+    /**
+     * Catalog positions of every card in the set. The array is shared; do not modify it.
+     */
+    public int[] cards(String code) {
+        return cardsByCode.getOrDefault(code, NO_CARDS);
+    }
+
+    public <T> List<T> select(String code, List<T> catalog) {
+        int[] positions = cards(code);
+        List<T> selected = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            selected.add(catalog.get(position));
+        }
+        return selected;
+    }
+
+    /**
+     * Every set code, in order of first appearance in the catalog.
+     */
+    public Set<String> codes() {
+        return Collections.unmodifiableSet(nameByCode.keySet());
+    }
+
+    public String codeForName(String seriesName) {
+        String code = codeByName.get(seriesName);
+        return code != null ? code : codeOf(seriesName);
+    }
+
+    public String nameForCode(String code) {
+        return nameByCode.get(code);
+    }
+
+    /**
+     * Every series name present in the catalog, sorted.
+     */
+    public List<String> seriesNames() {
+        return sortedNames;
+    }
+
+    /**
+     * Set code -> "CODE\nTitle" button label, sorted by code.
+     */
+    public Map<String, String> packLabels() {
+        Map<String, String> labels = new TreeMap<>();
+        for (Map.Entry<String, String> entry : nameByCode.entrySet()) {
+            labels.put(entry.getKey(), entry.getKey() + "\n" + titleOf(entry.getValue()));
+        }
+        return labels;
+    }
+
+    public int setCount() {
+        return cardsByCode.size();
+    }
+}
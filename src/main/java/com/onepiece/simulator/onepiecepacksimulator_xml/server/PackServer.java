@@ -0,0 +1,411 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.ProfileStore;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PullLog;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BinaryCardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSearchIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Counter;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Small JSON-over-HTTP front end to the simulator, on the JDK's built-in HTTP server.
+ *
+ * <pre>
+ *   GET  /sets                                   set codes with card counts
+ *   GET  /cards?q=luffy+color:red&amp;limit=50       catalog search (CardSearchIndex syntax)
+ *   POST /open?set=OP-05&amp;packs=N[&amp;profile=x]     open packs, optionally adding them to a profile
+ *   GET  /profiles/x                             the profile's owned cards (404 if it was never saved)
+ *   POST /profiles/x  {"add":{"12":1},"set":{"40":0}}   change quantities by catalog position
+ *   GET  /metrics                                every metric (see Metrics), as name/value pairs
+ * </pre>
+ *
+ * Requests run on a fixed pool of worker threads. Pack generation needs no locking (each
+ * worker has its own PackGenerator fork); changes to a profile are made under one of a fixed
+ * set of striped locks chosen by the profile name, so requests for different profiles almost
+ * never wait on each other. Every change is saved to the ProfileStore before the response is
+ * sent. Packs opened into a profile are recorded in the PullLog if there is one, which only
+ * queues them for its own writer thread, so recording adds no file I/O to the request.
+ * At most {@value #CACHED_PROFILES} profiles are kept loaded, least recently used first out;
+ * every change is already saved, so a dropped profile is simply read again on its next use.
+ */
+public class PackServer {
+
+    private static final int STRIPES = 64;
+    private static final int MAX_PACKS = 100_000;
+    private static final int MAX_LISTED_PACKS = 100; // Larger openings return counts only
+    private static final int CACHED_PROFILES = 256;
+
+    private static final LatencyHistogram REQUESTS = Metrics.histogram("http.request");
+    private static final Counter ERRORS = Metrics.counter("http.errors");
+
+    private final List<CardData> catalog;
+    private final SetIndex setIndex;
+    private final CardSearchIndex searchIndex;
+    private final ProfileStore profiles;
+    private final PullLog pulls; // null to not record pulls
+    private final ThreadLocal<PackGenerator> generators;
+    // Loaded profiles in access order. Only touched briefly; loading happens outside its lock.
+    private final Map<String, CollectionState> collections = Collections.synchronizedMap(
+            new LinkedHashMap<>(CACHED_PROFILES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CollectionState> eldest) {
+                    return size() > CACHED_PROFILES;
+                }
+            });
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Gson gson = new Gson();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PackServer(List<CardData> catalog, ProfileStore profiles) {
+        this(catalog, profiles, null);
+    }
+
+    public PackServer(List<CardData> catalog, ProfileStore profiles, PullLog pulls) {
+        this.catalog = catalog;
+        this.pulls = pulls;
+        this.setIndex = SetIndex.build(catalog);
+        this.searchIndex = CardSearchIndex.build(catalog);
+        this.profiles = profiles;
+        PackGenerator base = new PackGenerator(catalog, setIndex);
+        this.generators = ThreadLocal.withInitial(() -> base.fork(ThreadLocalRandom.current().nextLong()));
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Starts listening. Port 0 picks a free port; see {@link #port()}.
+     */
+    public PackServer start(String host, int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 256);
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "pack-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/sets", exchange -> handle(exchange, this::sets));
+        server.createContext("/cards", exchange -> handle(exchange, this::cards));
+        server.createContext("/open", exchange -> handle(exchange, this::open));
+        server.createContext("/profiles/", exchange -> handle(exchange, this::profile));
+        server.createContext("/metrics", exchange -> handle(exchange, (ex, query) -> Metrics.snapshot()));
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops listening and waits for the recorded pulls to be written.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+        if (pulls != null) {
+            pulls.flush();
+        }
+    }
+
+    private interface Handler {
+        Object respond(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        long start = Metrics.now();
+        int status = 200;
+        Object body;
+        try {
+            body = handler.respond(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (HttpError e) {
+            status = e.status;
+            body = Map.of("error", e.getMessage());
+        } catch (NumberFormatException | JsonParseException | IllegalStateException
+                 | UnsupportedOperationException e) {
+            // Malformed numbers or JSON, or JSON of the wrong shape (an array for an object...)
+            status = 400;
+            body = Map.of("error", "Bad request: " + e.getMessage());
+        } catch (IOException e) {
+            // The request body could not be read
+            status = 400;
+            body = Map.of("error", "Bad request: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+            status = 500;
+            body = Map.of("error", "Internal error");
+        }
+        if (status >= 500) {
+            ERRORS.increment();
+        }
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        REQUESTS.recordSince(start);
+    }
+
+    private Object sets(HttpExchange exchange, Map<String, String> query) {
+        requireMethod(exchange, "GET");
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (String code : new TreeSet<>(setIndex.codes())) {
+            sizes.put(code, setIndex.cards(code).length);
+        }
+        return sizes;
+    }
+
+    private Object cards(HttpExchange exchange, Map<String, String> query) {
+        requireMethod(exchange, "GET");
+        int limit = Integer.parseInt(query.getOrDefault("limit", "50"));
+        BitSet matches = searchIndex.search(query.getOrDefault("q", ""));
+        List<Map<String, Object>> cards = new ArrayList<>();
+        for (int p = matches.nextSetBit(0); p >= 0 && cards.size() < limit; p = matches.nextSetBit(p + 1)) {
+            cards.add(cardJson(p));
+        }
+        return Map.of("total", matches.cardinality(), "cards", cards);
+    }
+
+    private Object open(HttpExchange exchange, Map<String, String> query) {
+        requireMethod(exchange, "POST");
+        String setCode = query.get("set");
+        int packs = Integer.parseInt(query.getOrDefault("packs", "1"));
+        if (setCode == null || !setIndex.codes().contains(setCode)) {
+            throw new HttpError(400, "Unknown set: " + setCode);
+        }
+        if (packs < 1 || packs > MAX_PACKS) {
+            throw new HttpError(400, "packs must be between 1 and " + MAX_PACKS);
+        }
+        int[] pulled = generators.get().openPacks(setCode, packs);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("set", setCode);
+        response.put("packs", packs);
+        response.put("cardCount", pulled.length);
+        String profile = query.get("profile");
+        if (profile != null) {
+            CollectionState.Completion completion = withProfile(profile, collection -> {
+                for (int position : pulled) {
+                    collection.increment(position);
+                }
+                return collection.completion(setCode);
+            });
+            if (pulls != null) {
+                pulls.record(profile, setCode, pulled.length / packs, pulled, System.currentTimeMillis());
+            }
+            response.put("profile", profile);
+            response.put("owned", completion.owned());
+            response.put("total", completion.total());
+        }
+        if (packs <= MAX_LISTED_PACKS) {
+            List<Map<String, Object>> cards = new ArrayList<>(pulled.length);
+            for (int position : pulled) {
+                cards.add(cardJson(position));
+            }
+            response.put("cards", cards);
+        }
+        return response;
+    }
+
+    private Object profile(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String profile = exchange.getRequestURI().getPath().substring("/profiles/".length());
+        if (!ProfileStore.isValidName(profile)) {
+            throw new HttpError(404, "No such profile: " + profile);
+        }
+        String method = exchange.getRequestMethod();
+        if (method.equals("GET")) {
+            if (!collections.containsKey(profile) && !profiles.exists(profile)) {
+                throw new HttpError(404, "No such profile: " + profile);
+            }
+            return withProfile(profile, collection -> ownedJson(profile, collection));
+        }
+        requireMethod(exchange, "POST");
+        JsonObject body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+        }
+        return withProfile(profile, collection -> {
+            // Validate everything first so a bad entry changes nothing.
+            Map<Integer, Integer> set = positions(body, "set");
+            Map<Integer, Integer> add = positions(body, "add");
+            Map<Integer, Integer> result = new HashMap<>(set);
+            add.forEach((position, delta) -> {
+                int current = result.containsKey(position) ? result.get(position) : collection.quantity(position);
+                try {
+                    result.put(position, Math.max(0, Math.addExact(current, delta)));
+                } catch (ArithmeticException e) {
+                    throw new HttpError(400, "Quantity out of range at position " + position);
+                }
+            });
+            result.forEach(collection::setQuantity);
+            return ownedJson(profile, collection);
+        });
+    }
+
+    /**
+     * Runs the action on the profile's collection while holding the profile's stripe lock,
+     * loading the profile on first use and saving it afterwards if the action changed it.
+     */
+    private <T> T withProfile(String profile, Function<CollectionState, T> action) {
+        if (!ProfileStore.isValidName(profile)) {
+            throw new HttpError(400, "Invalid profile name: " + profile);
+        }
+        ReentrantLock lock = stripes[(profile.hashCode() & 0x7fffffff) % STRIPES];
+        lock.lock();
+        try {
+            // The stripe lock keeps two requests from loading the same profile at once.
+            CollectionState collection = collections.get(profile);
+            if (collection == null) {
+                collection = new CollectionState(catalog, setIndex);
+                collection.load(profiles.load(profile));
+                collections.put(profile, collection);
+            }
+            long before = collection.modCount();
+            T result = action.apply(collection);
+            if (collection.modCount() != before) {
+                profiles.save(profile, collection.quantities());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Integer, Integer> positions(JsonObject body, String key) {
+        Map<Integer, Integer> changes = new HashMap<>();
+        if (!body.has(key)) {
+            return changes;
+        }
+        for (Map.Entry<String, JsonElement> entry : body.getAsJsonObject(key).entrySet()) {
+            int position = Integer.parseInt(entry.getKey());
+            int value = entry.getValue().getAsInt();
+            if (position < 0 || position >= catalog.size()) {
+                throw new HttpError(400, "No card at position " + position);
+            }
+            if (key.equals("set") && value < 0) {
+                throw new HttpError(400, "Quantity cannot be negative: " + value);
+            }
+            changes.put(position, value);
+        }
+        return changes;
+    }
+
+    private Map<String, Object> ownedJson(String profile, CollectionState collection) {
+        List<Map<String, Object>> owned = new ArrayList<>();
+        for (int position = 0; position < catalog.size(); position++) {
+            if (collection.isOwned(position)) {
+                Map<String, Object> card = cardJson(position);
+                card.put("quantity", collection.quantity(position));
+                owned.add(card);
+            }
+        }
+        return Map.of("profile", profile, "cards", owned);
+    }
+
+    private Map<String, Object> cardJson(int position) {
+        CardData card = catalog.get(position);
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("position", position);
+        json.put("id", card.id());
+        json.put("name", card.name());
+        json.put("rarity", card.rarity());
+        json.put("set", SetIndex.codeOf(card.seriesName()));
+        json.put("alternateArt", card.alternateArt());
+        json.put("imageUrl", card.imageUrl());
+        return json;
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new HttpError(405, "Use " + method + " for " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Usage: PackServer [--host 0.0.0.0] [--port 8080] [--threads N]
+     */
+    public static void main(String[] args) throws IOException {
+        String host = "0.0.0.0";
+        int port = 8080;
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--host" -> host = args[i + 1];
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                default -> {
+                    System.err.println("Usage: PackServer [--host 0.0.0.0] [--port 8080] [--threads N]");
+                    System.exit(2);
+                }
+            }
+        }
+        List<CardData> catalog = BinaryCardLoader.loadCards("/OnePieceCards.xml");
+        ProfileStore profiles = ProfileStore.open(catalog);
+        profiles.migrateLegacyCollection();
+        PackServer packServer = new PackServer(catalog, profiles, PullLog.open(catalog)).start(host, port, threads);
+        System.out.println("Pack server listening on " + host + ":" + packServer.port() + " with " + threads + " threads");
+        Metrics.startLoggingFromProperties();
+    }
+}
@@ -0,0 +1,163 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.ui;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A scrolling grid of card images that only builds nodes for the rows on screen.
+ *
+ * Underneath it is a ListView with one item per row of tiles, so the ListView's virtual flow
+ * creates just enough row cells to fill the viewport and reuses them while scrolling, as the
+ * table does. Each row cell keeps one ImageView per column and loads images through the
+ * shared ImageCache only when the row is shown. The number of columns follows the width.
+ * Tiles can carry a one-line caption, e.g. a count.
+ */
+public class CardGallery extends StackPane {
+
+    private static final double GAP = 10;
+    private static final double CAPTION_HEIGHT = 20;
+
+    private final double tileWidth;
+    private final double tileHeight;
+    private final ListView<Integer> rows = new ListView<>();
+    private final ObservableList<Integer> rowIndexes = FXCollections.observableArrayList();
+    private List<Card> cards = List.of();
+    private int columns = 1;
+    private Consumer<Card> onCardClicked = card -> { };
+    private Function<Card, String> captions; // null: images only
+
+    public CardGallery(double tileWidth, double tileHeight) {
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        rows.setItems(rowIndexes);
+        rows.setFixedCellSize(tileHeight + GAP);
+        rows.setFocusTraversable(false);
+        rows.setCellFactory(list -> new RowCell());
+        rows.widthProperty().addListener((obs, old, width) -> updateColumns(width.doubleValue()));
+        getChildren().add(rows);
+    }
+
+    public void setCards(List<Card> cards) {
+        this.cards = List.copyOf(cards);
+        rebuildRows();
+    }
+
+    public void setOnCardClicked(Consumer<Card> onCardClicked) {
+        this.onCardClicked = onCardClicked;
+    }
+
+    /**
+     * Shows the returned text under each tile; null removes the captions.
+     */
+    public void setCaptions(Function<Card, String> captions) {
+        this.captions = captions;
+        rows.setFixedCellSize(tileHeight + GAP + (captions != null ? CAPTION_HEIGHT : 0));
+        rows.refresh();
+    }
+
+    private void updateColumns(double width) {
+        // Leave room for the vertical scroll bar and cell padding.
+        int fit = Math.max(1, (int) ((width - 30) / (tileWidth + GAP)));
+        if (fit != columns) {
+            columns = fit;
+            rebuildRows();
+        }
+    }
+
+    private void rebuildRows() {
+        int rowCount = (cards.size() + columns - 1) / columns;
+        List<Integer> indexes = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            indexes.add(i);
+        }
+        rowIndexes.setAll(indexes);
+        rows.refresh();
+    }
+
+    private final class RowCell extends ListCell<Integer> {
+        private final HBox tiles = new HBox(GAP);
+        private final List<ImageView> views = new ArrayList<>();
+        private final List<Label> labels = new ArrayList<>();
+        private final List<VBox> tileNodes = new ArrayList<>();
+
+        RowCell() {
+            tiles.setPadding(new Insets(0, 0, 0, GAP));
+            // Rows are not selectable; keep them looking like plain background.
+            setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+        }
+
+        @Override
+        protected void updateItem(Integer row, boolean empty) {
+            super.updateItem(row, empty);
+            if (empty || row == null) {
+                views.forEach(view -> view.setUserData(null));
+                setGraphic(null);
+                return;
+            }
+            while (views.size() < columns) {
+                addTile();
+            }
+            tiles.getChildren().setAll(tileNodes.subList(0, columns));
+            int first = row * columns;
+            for (int c = 0; c < columns; c++) {
+                ImageView view = views.get(c);
+                Label label = labels.get(c);
+                label.setVisible(captions != null);
+                label.setManaged(captions != null);
+                int index = first + c;
+                if (index < cards.size()) {
+                    Card card = cards.get(index);
+                    String url = card.data().imageUrl();
+                    if (url.isEmpty()) {
+                        view.setUserData(null);
+                        view.setImage(null);
+                    } else {
+                        ImageCache.shared().loadInto(view, url, tileWidth, tileHeight);
+                    }
+                    view.setOnMouseClicked(e -> onCardClicked.accept(card));
+                    view.setVisible(true);
+                    label.setText(captions != null ? captions.apply(card) : null);
+                } else {
+                    view.setUserData(null);
+                    view.setImage(null);
+                    view.setOnMouseClicked(null);
+                    view.setVisible(false);
+                    label.setText(null);
+                }
+            }
+            setGraphic(tiles);
+        }
+
+        private void addTile() {
+            ImageView view = new ImageView();
+            view.setFitWidth(tileWidth);
+            view.setFitHeight(tileHeight);
+            view.setPreserveRatio(true);
+            view.setCursor(Cursor.HAND);
+            Label label = new Label();
+            label.setPrefHeight(CAPTION_HEIGHT);
+            VBox tile = new VBox(view, label);
+            tile.setAlignment(Pos.TOP_CENTER);
+            tile.setPrefWidth(tileWidth);
+            views.add(view);
+            labels.add(label);
+            tileNodes.add(tile);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.ui;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PriceHistory;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.ProfileStore;
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.PullLog;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BinaryCardLoader;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSearchIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSortKeys;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CollectionState;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PackGenerator;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.SetIndex;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+/**
+ * Loads the card catalog, its set and search indexes, the table sort keys, a saved collection
+ * profile, the local price snapshot and the pull history off the JavaFX thread.
+ *
+ * Loading can write:
+ * <ul>
+ *   <li>the compiled catalog cache</li>
+ *   <li>on the first run with profiles, the import of the old JSON save</li>
+ *   <li>the catalog's printing keys, the first time a profile is used with it</li>
+ *   <li>a profile saved against another catalog, remapped onto this one, with the original
+ *       kept as a .stale file</li>
+ *   <li>a new local price snapshot, appended to the price history</li>
+ * </ul>
+ * Files are replaced atomically and the price history ignores a torn last record, so
+ * cancelling at any point leaves the saved collections intact. The pull history is only read;
+ * a repair after a crash waits for the next recorded pack.
+ */
+public class CatalogLoadTask extends Task<CatalogLoadTask.Catalog> {
+
+    public record Catalog(List<Card> cards, SetIndex setIndex, CardSearchIndex searchIndex,
+                          CollectionState collection, ProfileStore profiles, PackGenerator packGenerator,
+                          PullLog pulls, CardSortKeys sortKeys) { }
+
+    private final String xmlPath;
+    private final String profile;
+
+    public CatalogLoadTask(String xmlPath, String profile) {
+        this.xmlPath = xmlPath;
+        this.profile = profile;
+    }
+
+    /**
+     * Starts the task on a daemon thread, so a load still running at exit does not keep
+     * the JVM alive.
+     */
+    public CatalogLoadTask start() {
+        Thread thread = new Thread(this, "catalog-loader");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    @Override
+    protected Catalog call() throws IOException {
+        updateMessage("Loading cards...");
+        List<CardData> loaded = BinaryCardLoader.loadCards(xmlPath, fraction -> {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            if (fraction >= 0) {
+                updateProgress(fraction * 0.9, 1.0);
+            }
+        });
+        if (loaded.isEmpty()) {
+            throw new IOException("No cards could be loaded from " + xmlPath);
+        }
+        checkCancelled();
+
+        SetIndex setIndex = SetIndex.build(loaded);
+        CollectionState collection = new CollectionState(loaded, setIndex);
+        List<Card> cards = IntStream.range(0, loaded.size())
+                .mapToObj(i -> new Card(i, loaded.get(i), collection)).toList();
+        checkCancelled();
+
+        updateMessage("Indexing cards...");
+        CardSearchIndex searchIndex = CardSearchIndex.build(loaded);
+        CardSortKeys sortKeys = CardSortKeys.build(loaded);
+        checkCancelled();
+
+        updateMessage("Loading collection...");
+        ProfileStore profiles = ProfileStore.open(loaded);
+        profiles.migrateLegacyCollection();
+        collection.load(profiles.load(profile));
+        collection.setPrices(PriceHistory.loadLocalPrices(loaded));
+        PullLog pulls = PullLog.open(loaded);
+        updateProgress(1.0, 1.0);
+        updateMessage(cards.size() + " cards loaded");
+        return new Catalog(cards, setIndex, searchIndex, collection, profiles, new PackGenerator(loaded, setIndex), pulls,
+                sortKeys);
+    }
+
+    private void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+}
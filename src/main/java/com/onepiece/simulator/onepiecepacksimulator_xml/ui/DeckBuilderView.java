@@ -0,0 +1,336 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.ui;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.data.DeckLibrary;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardData;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSearchIndex;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Deck;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckList;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.DeckRules;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Deck-building window: search the catalog on the left, the deck on the right, and below it
+ * the deck's rule problems, missing copies and curves. Double-click a search result to add it
+ * (a leader card becomes the leader), double-click a deck line to remove one copy.
+ *
+ * The {@link Deck} keeps its checks and curves current, so each click only redraws the one
+ * changed line and the summary labels.
+ */
+public class DeckBuilderView {
+
+    private static final int MAX_RESULTS = 300;
+
+    private final List<CardData> catalog;
+    private final CardSearchIndex searchIndex;
+    private final DeckRules rules;
+    private final DeckLibrary library;
+    private final int[] owned;
+    private Deck deck;
+
+    private final ObservableList<Integer> results = FXCollections.observableArrayList();
+    private final ObservableList<Integer> entries = FXCollections.observableArrayList();
+    private final ComboBox<String> deckSelector = new ComboBox<>();
+    private final Label leaderLabel = new Label();
+    private final Label statusLabel = new Label();
+    private final Label curveLabel = new Label();
+    private final ImageView preview = new ImageView();
+
+    private DeckBuilderView(List<CardData> catalog, CardSearchIndex searchIndex, DeckRules rules,
+                            DeckLibrary library, int[] owned) {
+        this.catalog = catalog;
+        this.searchIndex = searchIndex;
+        this.rules = rules;
+        this.library = library;
+        this.owned = owned;
+        this.deck = newDeck("new-deck");
+    }
+
+    /**
+     * @param owned Owned copies by ordinal ({@link DeckRules#ownedCopies}) for the current profile.
+     */
+    public static void show(List<CardData> catalog, CardSearchIndex searchIndex, DeckRules rules,
+                            DeckLibrary library, int[] owned) {
+        new DeckBuilderView(catalog, searchIndex, rules, library, owned).open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.setTitle("Deck Builder");
+
+        deckSelector.setEditable(true); // Typing a new name renames the deck being built
+        deckSelector.getItems().setAll(library.names());
+        deckSelector.setValue(deck.name());
+        deckSelector.setOnAction(e -> selectDeck(deckSelector.getValue()));
+        Button newButton = new Button("New");
+        Button saveButton = new Button("Save");
+        Button deleteButton = new Button("Delete");
+        Button buildableButton = new Button("Buildable Decks");
+        newButton.setOnAction(e -> {
+            loadDeck(newDeck("new-deck"));
+            deckSelector.setValue(deck.name());
+        });
+        saveButton.setOnAction(e -> saveDeck());
+        deleteButton.setOnAction(e -> deleteDeck());
+        buildableButton.setOnAction(e -> showBuildable());
+
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search (e.g. luffy color:red); empty lists the leaders");
+        searchField.textProperty().addListener((obs, old, text) -> search(text));
+        ListView<Integer> resultList = new ListView<>(results);
+        resultList.setCellFactory(list -> new OrdinalCell(false));
+        resultList.setOnMouseClicked(e -> {
+            Integer ordinal = resultList.getSelectionModel().getSelectedItem();
+            if (ordinal == null) return;
+            showPreview(ordinal);
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                addCard(ordinal);
+            }
+        });
+        VBox.setVgrow(resultList, Priority.ALWAYS);
+        VBox left = new VBox(8, searchField, resultList);
+
+        ListView<Integer> deckList = new ListView<>(entries);
+        deckList.setCellFactory(list -> new OrdinalCell(true));
+        deckList.setOnMouseClicked(e -> {
+            Integer ordinal = deckList.getSelectionModel().getSelectedItem();
+            if (ordinal == null) return;
+            showPreview(ordinal);
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                removeCard(ordinal);
+            }
+        });
+        VBox.setVgrow(deckList, Priority.ALWAYS);
+        preview.setFitWidth(180);
+        preview.setFitHeight(252);
+        preview.setPreserveRatio(true);
+        VBox right = new VBox(8, leaderLabel, deckList);
+        HBox.setHgrow(left, Priority.ALWAYS);
+        HBox.setHgrow(right, Priority.ALWAYS);
+
+        HBox top = new HBox(10, deckSelector, newButton, saveButton, deleteButton, buildableButton);
+        statusLabel.setWrapText(true);
+        curveLabel.setWrapText(true);
+        BorderPane layout = new BorderPane(new HBox(10, left, right, preview));
+        layout.setTop(top);
+        layout.setBottom(new VBox(6, statusLabel, curveLabel));
+        layout.setPadding(new Insets(10));
+        BorderPane.setMargin(top, new Insets(0, 0, 10, 0));
+        BorderPane.setMargin(layout.getBottom(), new Insets(10, 0, 0, 0));
+
+        search("");
+        loadDeck(deck);
+        stage.setScene(new Scene(layout, 1100, 700));
+        stage.showAndWait();
+    }
+
+    private Deck newDeck(String name) {
+        Deck created = new Deck(rules, name);
+        created.setOwned(owned);
+        return created;
+    }
+
+    private void selectDeck(String name) {
+        if (name == null || name.isBlank() || name.equals(deck.name())) return;
+        DeckList saved = library.get(name);
+        if (saved != null) {
+            Deck loaded = Deck.of(rules, saved);
+            loaded.setOwned(owned);
+            loadDeck(loaded);
+        } else if (DeckLibrary.isValidName(name)) {
+            deck.setName(name);
+        } else {
+            new Alert(Alert.AlertType.WARNING, "Deck names may only contain letters, digits, '-' and '_'.").showAndWait();
+            deckSelector.setValue(deck.name());
+        }
+    }
+
+    private void loadDeck(Deck loaded) {
+        deck = loaded;
+        List<Integer> lines = new ArrayList<>();
+        for (int ordinal : deck.toList().ordinals()) {
+            lines.add(ordinal);
+        }
+        entries.setAll(lines);
+        updateSummary();
+    }
+
+    private void saveDeck() {
+        String name = deckSelector.getValue();
+        if (!DeckLibrary.isValidName(name)) {
+            new Alert(Alert.AlertType.WARNING, "Deck names may only contain letters, digits, '-' and '_'.").showAndWait();
+            return;
+        }
+        deck.setName(name);
+        library.save(deck.toList());
+        deckSelector.getItems().setAll(library.names());
+        deckSelector.setValue(name);
+    }
+
+    private void deleteDeck() {
+        if (library.get(deck.name()) == null) return;
+        library.delete(deck.name());
+        deckSelector.getItems().setAll(library.names());
+        loadDeck(newDeck("new-deck"));
+        deckSelector.setValue(deck.name());
+    }
+
+    private void showBuildable() {
+        List<String> lines = new ArrayList<>();
+        for (String name : library.names()) {
+            DeckList saved = library.get(name);
+            int missing = saved.missingCopies(owned);
+            lines.add(missing == 0 ? name + ": buildable" : name + ": " + missing + " cop" + (missing == 1 ? "y" : "ies") + " missing");
+        }
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, lines.isEmpty() ? "No saved decks." : String.join("\n", lines));
+        alert.setHeaderText(library.buildable(owned).size() + " of " + lines.size() + " saved decks can be built from this collection");
+        alert.setTitle("Buildable Decks");
+        alert.showAndWait();
+    }
+
+    /**
+     * Lists distinct cards matching the query, or every leader when it is blank.
+     */
+    private void search(String query) {
+        BitSet matches = query.isBlank() ? searchIndex.search("type:leader") : searchIndex.search(query);
+        BitSet seen = new BitSet(rules.size());
+        List<Integer> found = new ArrayList<>();
+        for (int position = matches.nextSetBit(0); position >= 0 && found.size() < MAX_RESULTS;
+             position = matches.nextSetBit(position + 1)) {
+            int ordinal = rules.ordinalOf(position);
+            if (!seen.get(ordinal)) {
+                seen.set(ordinal);
+                found.add(ordinal);
+            }
+        }
+        results.setAll(found);
+    }
+
+    private void addCard(int ordinal) {
+        if (rules.isLeader(ordinal)) {
+            deck.setLeader(ordinal);
+        } else {
+            deck.add(ordinal);
+            if (deck.copies(ordinal) == 1) {
+                entries.add(ordinal);
+            } else {
+                refreshEntry(ordinal);
+            }
+        }
+        updateSummary();
+    }
+
+    private void removeCard(int ordinal) {
+        if (!deck.remove(ordinal)) return;
+        if (deck.copies(ordinal) == 0) {
+            entries.remove(Integer.valueOf(ordinal));
+        } else {
+            refreshEntry(ordinal);
+        }
+        updateSummary();
+    }
+
+    private void refreshEntry(int ordinal) {
+        int index = entries.indexOf(ordinal);
+        if (index >= 0) {
+            entries.set(index, ordinal); // Same value; makes the list redraw that line
+        }
+    }
+
+    private void updateSummary() {
+        leaderLabel.setText(deck.leader() < 0 ? "Leader: none (double-click a leader to choose one)"
+                : "Leader: " + describe(deck.leader()));
+        List<String> problems = deck.problems();
+        String status = problems.isEmpty() ? "Legal deck" : String.join("; ", problems);
+        int missing = deck.missingCopies();
+        status += missing == 0 ? ". All cards owned." : ". Missing " + missing + " cop" + (missing == 1 ? "y" : "ies") + " from this collection.";
+        statusLabel.setText(status);
+        statusLabel.setStyle(problems.isEmpty() ? "-fx-text-fill: darkgreen;" : "-fx-text-fill: firebrick;");
+
+        StringBuilder curves = new StringBuilder("Colors:");
+        int[] colors = deck.colorCurve();
+        for (int i = 0; i < colors.length; i++) {
+            if (colors[i] > 0) curves.append(' ').append(DeckRules.COLORS.get(i)).append(' ').append(colors[i]);
+        }
+        int[] counters = deck.counterCurve();
+        curves.append("   Counter: 0 ").append(counters[0]).append(", 1000 ").append(counters[1])
+                .append(", 2000 ").append(counters[2]);
+        curves.append("   Power (k):");
+        int[] power = deck.powerCurve();
+        for (int i = 0; i < power.length; i++) {
+            if (power[i] > 0) curves.append(' ').append(i).append(i == power.length - 1 ? "+" : "").append('=').append(power[i]);
+        }
+        int[] kinds = deck.kindCounts();
+        StringJoiner kindCounts = new StringJoiner(", ", "   ", "");
+        for (int i = 1; i < kinds.length; i++) {
+            if (i != DeckRules.OTHER || kinds[i] > 0) kindCounts.add(DeckRules.KINDS.get(i) + " " + kinds[i]);
+        }
+        curves.append(kindCounts);
+        curveLabel.setText(curves.toString());
+    }
+
+    private void showPreview(int ordinal) {
+        String url = catalog.get(rules.printing(ordinal)).imageUrl();
+        if (url.isEmpty()) {
+            preview.setImage(null);
+        } else {
+            ImageCache.shared().loadInto(preview, url, 180, 252);
+        }
+    }
+
+    private String describe(int ordinal) {
+        CardData card = catalog.get(rules.printing(ordinal));
+        return card.name() + " (" + card.id() + ", " + card.color() + ")";
+    }
+
+    private final class OrdinalCell extends ListCell<Integer> {
+        private final boolean inDeck;
+
+        OrdinalCell(boolean inDeck) {
+            this.inDeck = inDeck;
+        }
+
+        @Override
+        protected void updateItem(Integer ordinal, boolean empty) {
+            super.updateItem(ordinal, empty);
+            if (empty || ordinal == null) {
+                setText(null);
+                return;
+            }
+            CardData card = catalog.get(rules.printing(ordinal));
+            StringBuilder text = new StringBuilder();
+            if (inDeck) {
+                text.append(deck.copies(ordinal)).append("x ");
+            }
+            text.append(card.id()).append("  ").append(card.name()).append("  [").append(card.color()).append(' ')
+                    .append(card.type()).append(']');
+            if (card.power() > 0) text.append("  ").append(card.power());
+            if (card.counter() > 0) text.append("  +").append(card.counter());
+            text.append("  (own ").append(owned[ordinal]).append(')');
+            setText(text.toString());
+        }
+    }
+}
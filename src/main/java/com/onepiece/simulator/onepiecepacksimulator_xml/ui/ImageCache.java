@@ -0,0 +1,275 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.ui;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.LatencyHistogram;
+import com.onepiece.simulator.onepiecepacksimulator_xml.metrics.Metrics;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared two-tier cache for card images.
+ *
+ * Decoded images are kept in memory per URL and size, in least-recently-used order, up to a
+ * budget in bytes (4 bytes per pixel). The raw downloaded bytes are kept on disk, keyed by a
+ * hash of the URL, so later sessions decode from disk instead of fetching again. Concurrent
+ * requests for the same image share one fetch and one decode. Any URL that URLConnection can
+ * open works, including file: URLs.
+ */
+public final class ImageCache {
+
+    private static final long DEFAULT_MEMORY_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_THREADS = 4;
+    private static final int TIMEOUT_MILLIS = 15_000;
+
+    private static ImageCache shared;
+
+    private final Path diskDir;
+    private final long maxMemoryBytes;
+    private final ExecutorService executor;
+    private final LinkedHashMap<String, Image> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes = 0;
+    private final Map<String, CompletableFuture<Image>> decoding = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<byte[]>> fetching = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    private static final LatencyHistogram DISK_READ = Metrics.histogram("image.read.disk");
+    private static final LatencyHistogram FETCH = Metrics.histogram("image.fetch");
+    private static final LatencyHistogram DECODE = Metrics.histogram("image.decode");
+    private static final LatencyHistogram WAIT = Metrics.histogram("image.wait");
+
+    /**
+     * Counters for {@link #loadInto}: how often an image was already decoded when a view
+     * asked for it, and how long views waited in total when it was not.
+     */
+    public record Stats(long hits, long misses, long totalWaitNanos) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        public double averageWaitMillis() {
+            return misses == 0 ? 0 : totalWaitNanos / 1e6 / misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.0f%% hit), avg wait %.1f ms",
+                    hits, misses, hitRatio() * 100, averageWaitMillis());
+        }
+    }
+
+    public ImageCache(Path diskDir, long maxMemoryBytes, int threads) {
+        this.diskDir = diskDir;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "image-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The application-wide cache, stored under image_cache/ in the data directory
+     * (-Donepiece.dataDir, default the working directory).
+     */
+    public static synchronized ImageCache shared() {
+        if (shared == null) {
+            Path dir = Paths.get(System.getProperty("onepiece.dataDir", ""), "image_cache");
+            shared = new ImageCache(dir, DEFAULT_MEMORY_BYTES, DEFAULT_THREADS);
+            ImageCache cache = shared;
+            Metrics.gauge("image.cache.hits", () -> cache.hits.sum());
+            Metrics.gauge("image.cache.misses", () -> cache.misses.sum());
+            Metrics.gauge("image.cache.hitRatio", () -> cache.stats().hitRatio());
+            Metrics.gauge("image.cache.memoryMB", () -> cache.memoryBytes() / (1024.0 * 1024.0));
+        }
+        return shared;
+    }
+
+    /**
+     * The image decoded to fit width x height (keeping its ratio), from memory, disk or the
+     * network, in that order.
+     */
+    public CompletableFuture<Image> load(String url, double width, double height) {
+        String key = key(url, width, height);
+        Image cached = getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Image> future = decoding.computeIfAbsent(key, k ->
+                fetchBytes(url).thenApplyAsync(bytes -> decode(bytes, width, height), executor));
+        future.whenComplete((image, error) -> {
+            decoding.remove(key, future);
+            if (image != null) {
+                put(key, image);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Starts fetching and decoding the images at the given size, so later requests for them
+     * are served from memory. Work is queued on the cache's fixed pool, so at most that many
+     * downloads run at once however many URLs are passed.
+     */
+    public void prefetch(List<String> urls, double width, double height) {
+        for (String url : urls) {
+            if (url != null && !url.isEmpty()) {
+                load(url, width, height);
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), waitNanos.sum());
+    }
+
+    /** Estimated size of the decoded images held in memory. */
+    public long memoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    /**
+     * Loads the image into the view on the FX thread, unless the view has moved on to
+     * another image by the time it arrives (as recycled table cells do).
+     */
+    public void loadInto(ImageView view, String url, double width, double height) {
+        Image cached = getIfPresent(key(url, width, height));
+        if (cached != null) {
+            hits.increment();
+            view.setImage(cached);
+            view.setUserData(url);
+            return;
+        }
+        misses.increment();
+        long requested = System.nanoTime();
+        view.setImage(null);
+        view.setUserData(url);
+        load(url, width, height).whenComplete((image, error) -> Platform.runLater(() -> {
+            long waited = System.nanoTime() - requested;
+            waitNanos.add(waited);
+            WAIT.record(waited);
+            if (url.equals(view.getUserData())) {
+                view.setImage(image);
+            }
+        }));
+    }
+
+    private CompletableFuture<byte[]> fetchBytes(String url) {
+        CompletableFuture<byte[]> future = fetching.computeIfAbsent(url, u ->
+                CompletableFuture.supplyAsync(() -> readThrough(u), executor));
+        future.whenComplete((bytes, error) -> {
+            fetching.remove(url, future);
+            if (error != null) {
+                System.err.println("Error loading image " + url + ": " + error.getMessage());
+            }
+        });
+        return future;
+    }
+
+    private byte[] readThrough(String url) {
+        Path file = diskDir.resolve(fileName(url));
+        long start = Metrics.now();
+        try {
+            if (Files.isRegularFile(file)) {
+                byte[] bytes = Files.readAllBytes(file);
+                DISK_READ.recordSince(start);
+                return bytes;
+            }
+            URLConnection connection = URI.create(url).toURL().openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            byte[] bytes;
+            try (InputStream in = connection.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            Files.createDirectories(diskDir);
+            Path temp = Files.createTempFile(diskDir, "download", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            FETCH.recordSince(start);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Image decode(byte[] bytes, double width, double height) {
+        long start = Metrics.now();
+        Image image = new Image(new ByteArrayInputStream(bytes), width, height, true, true);
+        if (image.isError()) {
+            throw new IllegalStateException("Could not decode image", image.getException());
+        }
+        DECODE.recordSince(start);
+        return image;
+    }
+
+    private Image getIfPresent(String key) {
+        synchronized (memory) {
+            return memory.get(key);
+        }
+    }
+
+    private void put(String key, Image image) {
+        long size = sizeOf(image);
+        synchronized (memory) {
+            Image previous = memory.put(key, image);
+            if (previous != null) {
+                memoryBytes -= sizeOf(previous);
+            }
+            memoryBytes += size;
+            Iterator<Map.Entry<String, Image>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                Map.Entry<String, Image> entry = eldest.next();
+                if (entry.getValue() == image) break;
+                memoryBytes -= sizeOf(entry.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    private static String key(String url, double width, double height) {
+        return (int) width + "x" + (int) height + " " + url;
+    }
+
+    private static String fileName(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
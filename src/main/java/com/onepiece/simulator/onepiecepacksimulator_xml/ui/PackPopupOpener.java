@@ -1,30 +1,47 @@
 package com.onepiece.simulator.onepiecepacksimulator_xml.ui;
 
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.BoxSummary;
 import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PriceTable;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.RarityBucket;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public class PackPopupOpener {
 
+    // Sizes the images are decoded at; prefetching must use the same ones to be reused.
+    private static final double REVEAL_WIDTH = 300, REVEAL_HEIGHT = 420;
+    private static final double TILE_WIDTH = 120, TILE_HEIGHT = 168;
+
     public static void openPack(String packImageUrl, List<Card> pulledCards, Consumer<List<Card>> onPackFinished) {
         boolean isStarterDeck = pulledCards.stream()
-                .anyMatch(c -> c.idProperty().get().startsWith("ST"));
+                .anyMatch(c -> c.data().id().startsWith("ST"));
+
+        // Start on every card's image now, while the pack art is on screen.
+        List<String> urls = pulledCards.stream().map(c -> c.data().imageUrl()).toList();
+        if (isStarterDeck) {
+            ImageCache.shared().prefetch(urls, TILE_WIDTH, TILE_HEIGHT);
+        } else {
+            ImageCache.shared().prefetch(urls, REVEAL_WIDTH, REVEAL_HEIGHT);
+        }
 
         if (isStarterDeck) {
             showAllCardsInGrid(pulledCards, onPackFinished);
@@ -49,7 +66,8 @@ public class PackPopupOpener {
 
         AtomicBoolean openClicked = new AtomicBoolean(false);
 
-        ImageView packImageView = new ImageView(new Image(packImageUrl, 300, 420, true, true));
+        ImageView packImageView = new ImageView();
+        ImageCache.shared().loadInto(packImageView, packImageUrl, 300, 420);
         packImageView.setPreserveRatio(true);
 
         Button openButton = new Button("Open Pack");
@@ -81,6 +99,7 @@ public class PackPopupOpener {
         stage.setTitle("Card 1 of " + cards.size());
 
         final int[] currentIndex = {0};
+        final long[] revealedValue = {0};
 
         ImageView cardView = new ImageView();
         cardView.setPreserveRatio(true);
@@ -91,11 +110,13 @@ public class PackPopupOpener {
 
         Runnable showCurrentCard = () -> {
             Card card = cards.get(currentIndex[0]);
-            Image image = new Image(card.imageUrlProperty().get(), true);
-            cardView.setImage(image);
+            ImageCache.shared().loadInto(cardView, card.data().imageUrl(), REVEAL_WIDTH, REVEAL_HEIGHT);
             stage.setTitle("Card " + (currentIndex[0] + 1) + " of " + cards.size());
+            revealedValue[0] += card.getPrice();
             if (currentIndex[0] == cards.size() - 1) {
-                instructionLabel.setText("Click card to finish");
+                instructionLabel.setText("Click card to finish" + valueText(revealedValue[0], "pack value"));
+            } else if (revealedValue[0] > 0) {
+                instructionLabel.setText("Click card to reveal next" + valueText(revealedValue[0], "so far"));
             }
         };
 
@@ -122,45 +143,109 @@ public class PackPopupOpener {
         Stage stage = new Stage();
         stage.initModality(Modality.APPLICATION_MODAL);
         stage.setTitle("Starter Deck Contents");
-        GridPane grid = new GridPane();
-        grid.setHgap(10);
-        grid.setVgap(10);
-        grid.setPadding(new Insets(20));
-        grid.setAlignment(Pos.CENTER);
-        int columns = 5;
-        int col = 0, row = 0;
-        for (Card card : cards) {
-            ImageView view = new ImageView(new Image(card.imageUrlProperty().get(), 120, 168, true, true));
-            view.setCursor(Cursor.HAND);
-            view.setOnMouseClicked(e -> showFullCard(card));
-            grid.add(view, col, row);
-            col++;
-            if (col >= columns) {
-                col = 0;
-                row++;
-            }
-        }
+        CardGallery gallery = new CardGallery(TILE_WIDTH, TILE_HEIGHT);
+        gallery.setCards(cards);
+        gallery.setOnCardClicked(PackPopupOpener::showFullCard);
+        VBox.setVgrow(gallery, Priority.ALWAYS);
         Button closeBtn = new Button("Add to Collection");
         closeBtn.setOnAction(e -> {
             stage.close();
             onDone.accept(cards);
         });
-        VBox layout = new VBox(15, grid, closeBtn);
+        long value = cards.stream().mapToLong(Card::getPrice).sum();
+        VBox layout = new VBox(15, gallery, new Label(valueText(value, "deck value").trim()), closeBtn);
         layout.setAlignment(Pos.CENTER);
         layout.setPadding(new Insets(10));
-        ScrollPane scrollPane = new ScrollPane(layout);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        Scene scene = new Scene(scrollPane, 800, 700);
+        Scene scene = new Scene(layout, 800, 700);
         stage.setScene(scene);
         stage.showAndWait();
     }
 
+    /**
+     * Shows any number of cards in a scrolling gallery, e.g. a whole set. Only the rows on
+     * screen are built and have their images loaded.
+     */
+    public static void showGallery(String title, List<Card> cards) {
+        Stage stage = new Stage();
+        stage.setTitle(title);
+        CardGallery gallery = new CardGallery(TILE_WIDTH, TILE_HEIGHT);
+        gallery.setCards(cards);
+        gallery.setOnCardClicked(PackPopupOpener::showFullCard);
+        stage.setScene(new Scene(gallery, 800, 700));
+        stage.show();
+    }
+
+    /**
+     * One window for a whole box: counts per rarity, new cards and duplicates, and a gallery
+     * of every distinct card pulled (rarest first, with copies and a "NEW" mark), filterable to
+     * new cards, hits or duplicates. Nothing is added until the user confirms.
+     * @param catalogCards The table's cards, indexed by catalog position.
+     */
+    public static void showBoxSummary(BoxSummary summary, List<Card> catalogCards, Runnable onConfirm) {
+        Stage stage = new Stage();
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.setTitle(summary.packs() + " " + summary.setCode() + " packs");
+
+        StringBuilder counts = new StringBuilder(String.format("%d packs, %d cards: %d new, %d duplicates%s%n",
+                summary.packs(), summary.cardCount(), summary.newCards().size(), summary.duplicateCount(),
+                valueText(summary.value(), "worth")));
+        for (RarityBucket bucket : BoxSummary.rarityOrder()) {
+            if (summary.pulled(bucket) > 0) {
+                counts.append(bucket).append(' ').append(summary.pulled(bucket)).append("   ");
+            }
+        }
+        Label header = new Label(counts.toString().trim());
+
+        Map<Integer, BoxSummary.Line> lineAt = new HashMap<>();
+        summary.lines().forEach(line -> lineAt.put(line.position(), line));
+        CardGallery gallery = new CardGallery(TILE_WIDTH, TILE_HEIGHT);
+        gallery.setOnCardClicked(PackPopupOpener::showFullCard);
+        gallery.setCaptions(card -> {
+            BoxSummary.Line line = lineAt.get(card.position());
+            return "x" + line.pulled() + (line.isNew() ? "  NEW" : "");
+        });
+        VBox.setVgrow(gallery, Priority.ALWAYS);
+
+        ChoiceBox<String> show = new ChoiceBox<>();
+        show.getItems().setAll("All cards", "New cards", "Hits (SR and up)", "Duplicates");
+        Runnable showSelected = () -> {
+            List<BoxSummary.Line> lines = switch (show.getSelectionModel().getSelectedIndex()) {
+                case 1 -> summary.newCards();
+                case 2 -> summary.hits();
+                case 3 -> summary.duplicates();
+                default -> summary.lines();
+            };
+            gallery.setCards(lines.stream().map(line -> catalogCards.get(line.position())).toList());
+        };
+        show.getSelectionModel().select(0);
+        show.setOnAction(e -> showSelected.run());
+        showSelected.run();
+
+        Button addButton = new Button("Add to Collection");
+        addButton.setOnAction(e -> {
+            stage.close();
+            onConfirm.run();
+        });
+        HBox top = new HBox(15, header, show);
+        top.setAlignment(Pos.CENTER_LEFT);
+        VBox layout = new VBox(10, top, gallery, addButton);
+        layout.setAlignment(Pos.CENTER);
+        layout.setPadding(new Insets(10));
+        stage.setScene(new Scene(layout, 900, 720));
+        stage.showAndWait();
+    }
+
+    // "  (pack value $1.23)", or nothing when there are no prices.
+    private static String valueText(long cents, String label) {
+        return cents > 0 ? "  (" + label + " " + PriceTable.format(cents) + ")" : "";
+    }
+
     private static void showFullCard(Card card) {
         Stage popup = new Stage();
         popup.initModality(Modality.APPLICATION_MODAL);
-        popup.setTitle(card.nameProperty().get());
-        ImageView imageView = new ImageView(new Image(card.imageUrlProperty().get(), 400, 560, true, true));
+        popup.setTitle(card.data().name());
+        ImageView imageView = new ImageView();
+        ImageCache.shared().loadInto(imageView, card.data().imageUrl(), 400, 560);
         imageView.setPreserveRatio(true);
         StackPane root = new StackPane(imageView);
         Scene scene = new Scene(root);
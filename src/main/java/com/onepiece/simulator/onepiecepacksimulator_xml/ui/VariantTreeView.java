@@ -0,0 +1,136 @@
+package com.onepiece.simulator.onepiecepacksimulator_xml.ui;
+
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.Card;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.CardSortKeys;
+import com.onepiece.simulator.onepiecepacksimulator_xml.entities.PriceTable;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableCell;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.util.Callback;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The card table with each base printing as a row and its alternate arts and reprints folded
+ * underneath it. Rows come from the same sorted list as the flat table; clicking a header
+ * hands the sort order back to the owner, which re-sorts that list, and the tree is rebuilt
+ * from it in one pass, only while the tree is on screen. Alternate arts whose base printing is
+ * filtered out are shown on their own.
+ */
+public class VariantTreeView extends TreeTableView<Card> {
+
+    private final ObservableList<Card> rows;
+    private final CardSortKeys sortKeys;
+    private final TreeItem<Card>[] itemByPosition; // Scratch space for rebuild(), cleared after each use
+
+    /**
+     * @param rows   the visible cards, already filtered and sorted
+     * @param onSort called with the clicked column titles, in priority order, and which of
+     *               them are descending
+     */
+    public VariantTreeView(ObservableList<Card> rows, CardSortKeys sortKeys, int catalogSize,
+                           BiConsumer<List<String>, BitSet> onSort) {
+        super(new TreeItem<>());
+        this.rows = rows;
+        this.sortKeys = sortKeys;
+        @SuppressWarnings({"unchecked", "rawtypes"}) // No generic array creation
+        TreeItem<Card>[] items = new TreeItem[catalogSize];
+        itemByPosition = items;
+        setShowRoot(false);
+        setPlaceholder(new Label("No cards to show."));
+
+        TreeTableColumn<Card, String> nameCol = column("Name", Card::nameProperty);
+        TreeTableColumn<Card, String> idCol = column("ID", Card::idProperty);
+        TreeTableColumn<Card, String> rarityCol = column("Rarity", Card::rarityProperty);
+        TreeTableColumn<Card, String> typeCol = column("Type", Card::typeProperty);
+        TreeTableColumn<Card, String> colorCol = column("Color", Card::colorProperty);
+        TreeTableColumn<Card, Number> priceCol = column("Price", Card::priceProperty);
+        priceCol.setCellFactory(col -> new TreeTableCell<>() {
+            @Override
+            protected void updateItem(Number cents, boolean empty) {
+                super.updateItem(cents, empty);
+                setText(empty || cents == null || cents.intValue() == 0 ? null : PriceTable.format(cents.intValue()));
+            }
+        });
+        TreeTableColumn<Card, Number> quantityCol = column("Quantity Owned", Card::quantityOwnedProperty);
+        nameCol.setPrefWidth(220);
+        getColumns().setAll(List.of(nameCol, idCol, rarityCol, typeCol, colorCol, priceCol, quantityCol));
+
+        setSortPolicy(tree -> {
+            List<String> titles = new ArrayList<>();
+            BitSet descending = new BitSet();
+            for (TreeTableColumn<Card, ?> column : tree.getSortOrder()) {
+                if (column.getSortType() == TreeTableColumn.SortType.DESCENDING) descending.set(titles.size());
+                titles.add(column.getText());
+            }
+            onSort.accept(titles, descending);
+            return true;
+        });
+        rows.addListener((ListChangeListener<Card>) change -> {
+            if (getScene() != null) rebuild();
+        });
+        sceneProperty().addListener((obs, old, scene) -> {
+            if (scene != null) rebuild();
+        });
+    }
+
+    /**
+     * Shows a sort order chosen in another view on this one's headers; the sort policy then
+     * hands it back unchanged.
+     */
+    public void showSortOrder(List<String> titles, BitSet descending) {
+        List<TreeTableColumn<Card, ?>> order = new ArrayList<>();
+        for (int i = 0; i < titles.size(); i++) {
+            for (TreeTableColumn<Card, ?> column : getColumns()) {
+                if (column.getText().equals(titles.get(i))) {
+                    column.setSortType(descending.get(i) ? TreeTableColumn.SortType.DESCENDING : TreeTableColumn.SortType.ASCENDING);
+                    order.add(column);
+                }
+            }
+        }
+        getSortOrder().setAll(order);
+    }
+
+    private static <T> TreeTableColumn<Card, T> column(String title, Function<Card, ObservableValue<T>> property) {
+        TreeTableColumn<Card, T> column = new TreeTableColumn<>(title);
+        Callback<TreeTableColumn.CellDataFeatures<Card, T>, ObservableValue<T>> factory =
+                data -> property.apply(data.getValue().getValue());
+        column.setCellValueFactory(factory);
+        return column;
+    }
+
+    /**
+     * Regroups the rows: one pass creates an item per visible card, a second attaches each
+     * variant to its base printing's item. Both passes follow the sorted order, so parents and
+     * children keep it too.
+     */
+    private void rebuild() {
+        List<TreeItem<Card>> top = new ArrayList<>();
+        for (Card card : rows) {
+            itemByPosition[card.position()] = new TreeItem<>(card);
+        }
+        for (Card card : rows) {
+            int position = card.position();
+            int base = sortKeys.groupOf(position);
+            TreeItem<Card> parent = base == position ? null : itemByPosition[base];
+            if (parent == null) {
+                top.add(itemByPosition[position]);
+            } else {
+                parent.getChildren().add(itemByPosition[position]);
+            }
+        }
+        for (Card card : rows) {
+            itemByPosition[card.position()] = null;
+        }
+        getRoot().getChildren().setAll(top);
+    }
+}